@@ -0,0 +1,192 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A minimal microbenchmark harness. Each kernel is run repeatedly for a
+ * warm-up period, so the JIT compiles it, and then for a measurement period,
+ * in which the elapsed time and the bytes allocated by the current thread are
+ * recorded. The results of the kernels are accumulated into a sink, so the
+ * JIT cannot discard the work being measured.
+ */
+public class Bench {
+
+	/**
+	 * A piece of code being measured, which performs a fixed number of
+	 * operations per call.
+	 */
+	public interface Kernel {
+
+		/**
+		 * Performs the operations of one call.
+		 *
+		 * @return a value depending on the results of the operations.
+		 */
+		public abstract double run();
+
+	}
+
+	/**
+	 * The measurement of a kernel.
+	 */
+	public static class Result {
+
+		public final String name;
+		public final long operations;
+		public final double nanosPerOp;
+		public final double bytesPerOp;
+		public final double allocationRate;
+
+		public Result(String name, long operations, double nanosPerOp, double bytesPerOp, double allocationRate) {
+			this.name = name;
+			this.operations = operations;
+			this.nanosPerOp = nanosPerOp;
+			this.bytesPerOp = bytesPerOp;
+			this.allocationRate = allocationRate;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-64s %14.2f ns/op %12.2f B/op %10.2f MB/s", name, nanosPerOp, bytesPerOp,
+					allocationRate);
+		}
+
+	}
+
+	/**
+	 * the sink of the results of the kernels.
+	 */
+	private static volatile double sink;
+
+	/**
+	 * the bean reporting the bytes allocated by each thread, or null if the
+	 * JVM does not provide it.
+	 */
+	private static final com.sun.management.ThreadMXBean threads = allocationBean();
+
+	/**
+	 * the duration of the warm-up period of each kernel, in nanoseconds.
+	 */
+	private final long warmupNanos;
+
+	/**
+	 * the duration of the measurement period of each kernel, in nanoseconds.
+	 */
+	private final long measureNanos;
+
+	/**
+	 * Constructor for the Bench class.
+	 *
+	 * @param warmupMillis
+	 *            the duration of the warm-up period of each kernel.
+	 * @param measureMillis
+	 *            the duration of the measurement period of each kernel.
+	 */
+	public Bench(long warmupMillis, long measureMillis) {
+		this.warmupNanos = warmupMillis * 1000000L;
+		this.measureNanos = measureMillis * 1000000L;
+	}
+
+	/**
+	 * Measures a kernel.
+	 *
+	 * @param name
+	 *            the name of the measurement.
+	 * @param opsPerRun
+	 *            the number of operations performed by each call to the
+	 *            kernel.
+	 * @param kernel
+	 *            the kernel being measured.
+	 * @return the time and the allocation per operation.
+	 */
+	public Result measure(String name, int opsPerRun, Kernel kernel) {
+
+		double acc = 0.0;
+		long deadline = System.nanoTime() + warmupNanos;
+		while (System.nanoTime() < deadline) {
+			acc += kernel.run();
+		}
+
+		long runs = 0;
+		long allocStart = allocatedBytes();
+		long start = System.nanoTime(), now;
+		deadline = start + measureNanos;
+		do {
+			acc += kernel.run();
+			runs++;
+			now = System.nanoTime();
+		} while (now < deadline);
+		long allocated = allocatedBytes() - allocStart;
+		sink += acc;
+
+		long ops = runs * opsPerRun;
+		double elapsed = now - start;
+		return new Result(name, ops, elapsed / ops, (double) allocated / ops, allocated / (elapsed / 1e9) / 1e6);
+	}
+
+	/**
+	 * Measures a kernel that must start from the same state on every call.
+	 * The setup restores the state before each call, and only the calls to
+	 * the kernel are timed and have their allocations counted. The clock is
+	 * read around every call, so the kernel should take at least a few
+	 * microseconds.
+	 *
+	 * @param name
+	 *            the name of the measurement.
+	 * @param opsPerRun
+	 *            the number of operations performed by each call to the
+	 *            kernel.
+	 * @param setup
+	 *            the code restoring the state of the kernel.
+	 * @param kernel
+	 *            the kernel being measured.
+	 * @return the time and the allocation per operation.
+	 */
+	public Result measure(String name, int opsPerRun, Runnable setup, Kernel kernel) {
+
+		double acc = 0.0;
+		long deadline = System.nanoTime() + warmupNanos;
+		while (System.nanoTime() < deadline) {
+			setup.run();
+			acc += kernel.run();
+		}
+
+		long runs = 0, elapsed = 0, allocated = 0;
+		deadline = System.nanoTime() + measureNanos;
+		do {
+			setup.run();
+			long allocStart = allocatedBytes();
+			long start = System.nanoTime();
+			acc += kernel.run();
+			elapsed += System.nanoTime() - start;
+			allocated += allocatedBytes() - allocStart;
+			runs++;
+		} while (System.nanoTime() < deadline);
+		sink += acc;
+
+		long ops = runs * opsPerRun;
+		return new Result(name, ops, (double) elapsed / ops, (double) allocated / ops,
+				allocated / (elapsed / 1e9) / 1e6);
+	}
+
+	/**
+	 * Gives the bytes allocated so far by the current thread.
+	 *
+	 * @return the number of bytes, or 0 if it is not available.
+	 */
+	public static long allocatedBytes() {
+		return (threads == null) ? 0L : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		if (!threadBean.isThreadAllocatedMemorySupported())
+			return null;
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		return threadBean;
+	}
+
+}
@@ -0,0 +1,143 @@
+package benchmarks;
+
+import java.util.Arrays;
+
+import problems.qbf.QBF;
+import solutions.Solution;
+
+/**
+ * The original QBF kernels, with boxed variables and a boxed matrix of
+ * coefficients, kept as the reference the optimized implementations are
+ * compared against. Every cost is computed from scratch, in O(n) for the
+ * insertion, removal and exchange costs and in O(n^2) for the whole
+ * function.
+ */
+public class BoxedQBF {
+
+	/**
+	 * Dimension of the domain.
+	 */
+	public final Integer size;
+
+	/**
+	 * The array of numbers representing the domain.
+	 */
+	public final Double[] variables;
+
+	/**
+	 * The matrix A of coefficients for the QBF f(x) = x'.A.x
+	 */
+	public final Double[][] A;
+
+	/**
+	 * Copies the coefficients of a QBF.
+	 *
+	 * @param qbf
+	 *            the QBF whose coefficients are copied.
+	 */
+	public BoxedQBF(QBF qbf) {
+		size = qbf.size;
+		A = new Double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				A[i][j] = qbf.A.get(i, j);
+			}
+		}
+		variables = new Double[size];
+		Arrays.fill(variables, 0.0);
+	}
+
+	public void setVariables(Solution<Integer> sol) {
+		Arrays.fill(variables, 0.0);
+		for (Integer elem : sol) {
+			variables[elem] = 1.0;
+		}
+	}
+
+	public Double evaluate(Solution<Integer> sol) {
+		setVariables(sol);
+		return sol.cost = evaluateQBF();
+	}
+
+	public Double evaluateQBF() {
+
+		Double aux = (double) 0, sum = (double) 0;
+		Double vecAux[] = new Double[size];
+
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				aux += variables[j] * A[i][j];
+			}
+			vecAux[i] = aux;
+			sum += aux * variables[i];
+			aux = (double) 0;
+		}
+
+		return sum;
+
+	}
+
+	public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
+		setVariables(sol);
+		return evaluateInsertionQBF(elem);
+	}
+
+	public Double evaluateInsertionQBF(int i) {
+
+		if (variables[i] == 1)
+			return 0.0;
+
+		return evaluateContributionQBF(i);
+	}
+
+	public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
+		setVariables(sol);
+		return evaluateRemovalQBF(elem);
+	}
+
+	public Double evaluateRemovalQBF(int i) {
+
+		if (variables[i] == 0)
+			return 0.0;
+
+		return -evaluateContributionQBF(i);
+
+	}
+
+	public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
+		setVariables(sol);
+		return evaluateExchangeQBF(elemIn, elemOut);
+	}
+
+	public Double evaluateExchangeQBF(int in, int out) {
+
+		Double sum = 0.0;
+
+		if (in == out)
+			return 0.0;
+		if (variables[in] == 1)
+			return evaluateRemovalQBF(out);
+		if (variables[out] == 0)
+			return evaluateInsertionQBF(in);
+
+		sum += evaluateContributionQBF(in);
+		sum -= evaluateContributionQBF(out);
+		sum -= (A[in][out] + A[out][in]);
+
+		return sum;
+	}
+
+	private Double evaluateContributionQBF(int i) {
+
+		Double sum = 0.0;
+
+		for (int j = 0; j < size; j++) {
+			if (i != j)
+				sum += variables[j] * (A[i][j] + A[j][i]);
+		}
+		sum += A[i][i];
+
+		return sum;
+	}
+
+}
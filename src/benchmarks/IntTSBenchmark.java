@@ -0,0 +1,120 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import metaheuristics.tabusearch.AbstractIntTS;
+import metaheuristics.tabusearch.AbstractTS;
+import problems.qbf.solvers.IntTS_QBF;
+import problems.qbf.solvers.TS_QBF;
+import problems.qbfpt.solvers.IntTS_QBFPT;
+import problems.qbfpt.solvers.TS_QBFPT;
+import solutions.IntSolution;
+import solutions.Solution;
+
+/**
+ * Compares the solvers of the primitive framework ({@link AbstractIntTS})
+ * with the ones they were ported from: it checks that both find the same
+ * solution in a run of a fixed number of iterations, and measures their
+ * neighborhoodMove() calls, time and bytes allocated per iteration, from the
+ * same warmed-up solution, as {@link TSMoveBenchmark} does.
+ *
+ * Usage: IntTSBenchmark [instances, comma separated] [iterations of the
+ * compared runs] [warm-up ms] [measurement ms]
+ */
+public class IntTSBenchmark {
+
+	/**
+	 * Builds the solvers of a configuration.
+	 */
+	private interface BoxedFactory {
+
+		public abstract AbstractTS<Integer> create(int iterations) throws IOException;
+
+	}
+
+	private interface PrimitiveFactory {
+
+		public abstract AbstractIntTS create(int iterations) throws IOException;
+
+	}
+
+	private static final int TENURE = 20;
+
+	/**
+	 * the number of iterations of the runs building the starting solutions.
+	 */
+	private static final int WARMUP_ITERATIONS = 1000;
+
+	public static void main(String[] args) throws IOException {
+
+		String[] instances = (args.length > 0) ? args[0].split(",") : new String[] { "qbf200", "qbf400" };
+		int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 1000;
+		long warmupMillis = (args.length > 2) ? Long.parseLong(args[2]) : 300;
+		long measureMillis = (args.length > 3) ? Long.parseLong(args[3]) : 1000;
+		Bench bench = new Bench(warmupMillis, measureMillis);
+
+		for (String instance : instances) {
+			String filename = "instances/" + instance;
+
+			AbstractTS<Integer> warmup = new TS_QBF(TENURE, WARMUP_ITERATIONS, filename);
+			warmup.verbose = false;
+			Solution<Integer> start = warmup.solve();
+			System.out.println("\n" + instance + ": start cost=" + start.cost);
+
+			run(bench, instance, "TS_QBF", start, iterations,
+					n -> new TS_QBF(TENURE, n, filename),
+					n -> new IntTS_QBF(TENURE, n, filename));
+			for (String localSearch : new String[] { "best-improving", "first-improving" }) {
+				run(bench, instance, "TS_QBFPT " + localSearch, null, iterations,
+						n -> new TS_QBFPT(TENURE, n, filename, localSearch),
+						n -> new IntTS_QBFPT(TENURE, n, filename, localSearch));
+			}
+		}
+
+	}
+
+	/**
+	 * Compares a solver with its port, and measures both. The QBF-PT solvers
+	 * start from their own constructive heuristic, since a QBF solution may
+	 * not be feasible.
+	 */
+	private static void run(Bench bench, String instance, String name, Solution<Integer> start, int iterations,
+			BoxedFactory boxed, PrimitiveFactory primitive) throws IOException {
+
+		AbstractTS<Integer> reference = boxed.create(iterations);
+		reference.verbose = false;
+		reference.setRng(new SplittableRandom(1));
+		Solution<Integer> expected = reference.solve();
+		AbstractIntTS port = primitive.create(iterations);
+		port.verbose = false;
+		port.setRng(new SplittableRandom(1));
+		IntSolution found = port.solve();
+		boolean same = expected.cost.equals(found.cost) && expected.equals(found);
+		System.out.println(instance + " " + name + ": " + iterations + " iterations, cost=" + expected.cost
+				+ (same ? ", same solution" : ", DIFFERENT solution: cost=" + found.cost));
+
+		/* a solver with no iterations only sets up the starting state */
+		AbstractTS<Integer> mover = boxed.create(0);
+		mover.verbose = false;
+		mover.setRng(new SplittableRandom(1));
+		mover.setInitialSolution(start);
+		mover.solve();
+		System.out.println(bench.measure(instance + " " + name + " move", 1, () -> {
+			mover.neighborhoodMove();
+			return 0.0;
+		}));
+
+		AbstractIntTS intMover = primitive.create(0);
+		intMover.verbose = false;
+		intMover.setRng(new SplittableRandom(1));
+		intMover.setInitialSolution((IntSolution) start);
+		intMover.solve();
+		System.out.println(bench.measure(instance + " Int" + name + " move", 1, () -> {
+			intMover.neighborhoodMove();
+			return 0.0;
+		}));
+
+	}
+
+}
@@ -0,0 +1,249 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import problems.qbf.QBF;
+import problems.qbf.matrix.BinaryInstances;
+import problems.qbf.matrix.CoefficientMatrices;
+import problems.qbf.matrix.CoefficientMatrices.Format;
+import problems.qbf.matrix.RowKernels;
+import solutions.IntSolution;
+
+/**
+ * Measures the evaluation kernels of the QBF, and the {@link problems.Evaluator}
+ * methods built on them, on every instance of the instances directory and on
+ * larger randomly generated instances. Each instance is measured on random
+ * solutions of several densities, for every storage of the coefficients, and
+ * the same kernels of the original boxed implementation ({@link BoxedQBF}) are
+ * measured as a reference. The "vector" storage uses the kernels of the
+ * Vector API when the JVM runs with {@code --add-modules
+ * jdk.incubator.vector} and the vector source folder is in the class path,
+ * and the scalar ones otherwise; the first line of the output tells which.
+ *
+ * Usage: QBFKernelBenchmark [generated sizes, comma separated] [warm-up ms]
+ * [measurement ms]
+ */
+public class QBFKernelBenchmark {
+
+	/**
+	 * the fraction of the variables set in the measured solutions.
+	 */
+	private static final double[] DENSITIES = { 0.1, 0.25, 0.5, 0.75 };
+
+	/**
+	 * the number of exchanges evaluated by each call of the exchange kernels.
+	 */
+	private static final int EXCHANGE_PAIRS = 256;
+
+	public static void main(String[] args) throws IOException {
+
+		int[] generated = (args.length > 0) ? parseSizes(args[0]) : new int[] { 800, 1600 };
+		long warmupMillis = (args.length > 1) ? Long.parseLong(args[1]) : 200;
+		long measureMillis = (args.length > 2) ? Long.parseLong(args[2]) : 500;
+		Bench bench = new Bench(warmupMillis, measureMillis);
+		System.out.println("vector kernels: " + RowKernels.vector().name());
+
+		String[] instances = new File("instances").list((dir, name) -> name.startsWith("qbf"));
+		Arrays.sort(instances);
+		for (String instance : instances) {
+			run(bench, instance, backends("instances/" + instance));
+		}
+
+		for (int n : generated) {
+			File file = File.createTempFile("qbf" + n + "-", "");
+			file.deleteOnExit();
+			writeRandomInstance(file, n, n);
+			run(bench, "random" + n, backends(file.getPath()));
+		}
+
+	}
+
+	/**
+	 * Reads an instance into a QBF for each storage of the coefficients.
+	 */
+	private static Map<String, QBF> backends(String filename) throws IOException {
+		Map<String, QBF> backends = new LinkedHashMap<>();
+		backends.put("dense", new QBF(CoefficientMatrices.read(filename, Format.DENSE)));
+		backends.put("symmetric", new QBF(CoefficientMatrices.read(filename, Format.SYMMETRIC)));
+		backends.put("vector", new QBF(CoefficientMatrices.read(filename, Format.VECTOR)));
+		backends.put("integer", new QBF(CoefficientMatrices.read(filename, Format.INTEGER)));
+		backends.put("float32", new QBF(CoefficientMatrices.read(filename, Format.FLOAT32)));
+		backends.put("packed", new QBF(CoefficientMatrices.read(filename, Format.PACKED)));
+		backends.put("sparse", new QBF(CoefficientMatrices.read(filename, Format.SPARSE)));
+		File binary = File.createTempFile("qbf", ".qbfb");
+		binary.deleteOnExit();
+		BinaryInstances.convert(filename, binary.getPath(), BinaryInstances.Layout.DENSE, null);
+		backends.put("mapped", new QBF(CoefficientMatrices.read(binary.getPath(), Format.MAPPED)));
+		return backends;
+	}
+
+	/**
+	 * Measures every kernel of each backend of a QBF on solutions of each
+	 * density.
+	 */
+	private static void run(Bench bench, String instance, Map<String, QBF> backends) {
+
+		QBF reference = backends.values().iterator().next();
+		int n = reference.size;
+		BoxedQBF boxed = new BoxedQBF(reference);
+
+		for (double density : DENSITIES) {
+
+			SplittableRandom rng = new SplittableRandom(n * 31L + (long) (density * 100));
+			IntSolution sol = new IntSolution(n);
+			List<Integer> candidates = new ArrayList<>();
+			for (int i = 0; i < n; i++) {
+				if (rng.nextDouble() < density)
+					sol.add(i);
+				else
+					candidates.add(i);
+			}
+			if (sol.isEmpty() || candidates.isEmpty())
+				continue;
+
+			int[] ins = candidates.stream().mapToInt(Integer::intValue).toArray();
+			int[] outs = Arrays.copyOf(sol.elements(), sol.size());
+			int[] pairIn = new int[EXCHANGE_PAIRS], pairOut = new int[EXCHANGE_PAIRS];
+			Integer[] boxedIn = new Integer[EXCHANGE_PAIRS], boxedOut = new Integer[EXCHANGE_PAIRS];
+			for (int p = 0; p < EXCHANGE_PAIRS; p++) {
+				boxedIn[p] = pairIn[p] = ins[rng.nextInt(ins.length)];
+				boxedOut[p] = pairOut[p] = outs[rng.nextInt(outs.length)];
+			}
+			Integer[] insBoxed = candidates.toArray(new Integer[0]);
+			Integer[] outsBoxed = sol.toArray(new Integer[0]);
+			double[] deltas = new double[Math.max(n, ins.length * outs.length)];
+
+			System.out.println("\n" + instance + ", n=" + n + ", density=" + density + ", |S|=" + sol.size());
+
+			for (Map.Entry<String, QBF> backend : backends.entrySet()) {
+				String prefix = backend.getKey() + " ";
+				QBF qbf = backend.getValue();
+
+				/* primitive kernels, computing every cost from the variables */
+				qbf.setVariables(sol);
+				print(bench.measure(prefix + "QBF.evaluateQBF", 1, qbf::evaluateQBF));
+				print(bench.measure(prefix + "QBF.evaluateInsertionQBF", ins.length, () -> {
+					double sum = 0.0;
+					for (int i : ins)
+						sum += qbf.evaluateInsertionQBF(i);
+					return sum;
+				}));
+				print(bench.measure(prefix + "QBF.evaluateRemovalQBF", outs.length, () -> {
+					double sum = 0.0;
+					for (int i : outs)
+						sum += qbf.evaluateRemovalQBF(i);
+					return sum;
+				}));
+				print(bench.measure(prefix + "QBF.evaluateExchangeQBF", EXCHANGE_PAIRS, () -> {
+					double sum = 0.0;
+					for (int p = 0; p < EXCHANGE_PAIRS; p++)
+						sum += qbf.evaluateExchangeQBF(pairIn[p], pairOut[p]);
+					return sum;
+				}));
+
+				/* Evaluator methods, on the solution tracked by evaluate */
+				print(bench.measure(prefix + "Evaluator.evaluate", 1, () -> qbf.evaluate(sol)));
+				print(bench.measure(prefix + "Evaluator.evaluateInsertionCost", insBoxed.length, () -> {
+					double sum = 0.0;
+					for (Integer i : insBoxed)
+						sum += qbf.evaluateInsertionCost(i, sol);
+					return sum;
+				}));
+				print(bench.measure(prefix + "Evaluator.evaluateRemovalCost", outsBoxed.length, () -> {
+					double sum = 0.0;
+					for (Integer i : outsBoxed)
+						sum += qbf.evaluateRemovalCost(i, sol);
+					return sum;
+				}));
+				print(bench.measure(prefix + "Evaluator.evaluateExchangeCost", EXCHANGE_PAIRS, () -> {
+					double sum = 0.0;
+					for (int p = 0; p < EXCHANGE_PAIRS; p++)
+						sum += qbf.evaluateExchangeCost(boxedIn[p], boxedOut[p], sol);
+					return sum;
+				}));
+				print(bench.measure(prefix + "Evaluator.evaluateInsertionCosts", ins.length, () -> {
+					qbf.evaluateInsertionCosts(candidates, sol, deltas);
+					return deltas[0];
+				}));
+				print(bench.measure(prefix + "Evaluator.evaluateRemovalCosts", outs.length, () -> {
+					qbf.evaluateRemovalCosts(sol, deltas);
+					return deltas[0];
+				}));
+				print(bench.measure(prefix + "Evaluator.evaluateExchangeCosts", ins.length * outs.length, () -> {
+					qbf.evaluateExchangeCosts(candidates, 0, candidates.size(), sol, deltas);
+					return deltas[0];
+				}));
+			}
+
+			/* the original boxed kernels */
+			boxed.setVariables(sol);
+			print(bench.measure("BoxedQBF.evaluateQBF", 1, boxed::evaluateQBF));
+			print(bench.measure("BoxedQBF.evaluateInsertionQBF", ins.length, () -> {
+				double sum = 0.0;
+				for (int i : ins)
+					sum += boxed.evaluateInsertionQBF(i);
+				return sum;
+			}));
+			print(bench.measure("BoxedQBF.evaluateRemovalQBF", outs.length, () -> {
+				double sum = 0.0;
+				for (int i : outs)
+					sum += boxed.evaluateRemovalQBF(i);
+				return sum;
+			}));
+			print(bench.measure("BoxedQBF.evaluateExchangeQBF", EXCHANGE_PAIRS, () -> {
+				double sum = 0.0;
+				for (int p = 0; p < EXCHANGE_PAIRS; p++)
+					sum += boxed.evaluateExchangeQBF(pairIn[p], pairOut[p]);
+				return sum;
+			}));
+			print(bench.measure("BoxedQBF.evaluateInsertionCost", insBoxed.length, () -> {
+				double sum = 0.0;
+				for (Integer i : insBoxed)
+					sum += boxed.evaluateInsertionCost(i, sol);
+				return sum;
+			}));
+
+		}
+
+	}
+
+	private static void print(Bench.Result result) {
+		System.out.println(result);
+	}
+
+	private static int[] parseSizes(String sizes) {
+		if (sizes.isEmpty())
+			return new int[0];
+		return Arrays.stream(sizes.split(",")).mapToInt(Integer::parseInt).toArray();
+	}
+
+	/**
+	 * Writes an instance of random integer coefficients in [-10, 10], in the
+	 * format of the instances directory.
+	 */
+	static void writeRandomInstance(File file, int n, long seed) throws IOException {
+		SplittableRandom rng = new SplittableRandom(seed);
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+			writer.write(n + "\n");
+			for (int i = 0; i < n; i++) {
+				StringBuilder line = new StringBuilder();
+				for (int j = i; j < n; j++) {
+					if (j > i)
+						line.append(' ');
+					line.append(rng.nextInt(-10, 11));
+				}
+				writer.write(line.append('\n').toString());
+			}
+		}
+	}
+
+}
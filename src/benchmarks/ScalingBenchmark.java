@@ -0,0 +1,152 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import metaheuristics.tabusearch.AbstractTS;
+import problems.qbf.matrix.InstanceGenerator;
+import problems.qbf.solvers.TS_QBF;
+import problems.qbfpt.solvers.TS_QBFPT;
+import problems.qbfpt.solvers.TS_QBFPT_Diversification;
+import problems.qbfpt.solvers.TS_QBFPT_PROB;
+
+/**
+ * Measures how the Tabu Search solvers scale with the dimension of the
+ * instance, on instances made by the {@link InstanceGenerator} at a fixed
+ * density, so the number of coefficients grows with n^2. For each size and
+ * solver it records:
+ *
+ * <ul>
+ * <li>the time to load the instance and set up the solver, and the heap it
+ * retains afterwards;</li>
+ * <li>the time to the first feasible solution, the one built by the
+ * constructive heuristic at the start of solve();</li>
+ * <li>the iterations per second of the neighborhood moves that follow, and
+ * the bytes allocated per iteration, over a fixed number of iterations or a
+ * time limit, whichever comes first.</li>
+ * </ul>
+ *
+ * The instances are generated once per size into temporary binary files.
+ *
+ * Usage: ScalingBenchmark [sizes, comma separated] [density] [iterations]
+ * [time limit of the iterations, in seconds]
+ */
+public class ScalingBenchmark {
+
+	/**
+	 * Builds the solver of an instance.
+	 */
+	private interface SolverFactory {
+
+		public abstract AbstractTS<Integer> create(String filename, Integer iterations) throws IOException;
+
+	}
+
+	private static final int TENURE = 20;
+
+	/**
+	 * the dimension of the instance the solvers are warmed up on.
+	 */
+	private static final int WARMUP_SIZE = 400;
+
+	private static final String[] NAMES = { "TS_QBF", "TS_QBFPT best-improving", "TS_QBFPT first-improving",
+			"TS_QBFPT_PROB", "TS_QBFPT_Diversification" };
+
+	private static final SolverFactory[] FACTORIES = {
+			(filename, iterations) -> new TS_QBF(TENURE, iterations, filename),
+			(filename, iterations) -> new TS_QBFPT(TENURE, iterations, filename, "best-improving"),
+			(filename, iterations) -> new TS_QBFPT(TENURE, iterations, filename, "first-improving"),
+			(filename, iterations) -> new TS_QBFPT_PROB(TENURE, iterations, filename, "best-improving", 0.5),
+			(filename, iterations) -> new TS_QBFPT_Diversification(TENURE, iterations, filename, "best-improving",
+					100) };
+
+	public static void main(String[] args) throws IOException {
+
+		int[] sizes = (args.length > 0) ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+				: new int[] { 1000, 2000, 5000, 10000 };
+		double density = (args.length > 1) ? Double.parseDouble(args[1]) : 0.01;
+		int iterations = (args.length > 2) ? Integer.parseInt(args[2]) : 100;
+		long maxNanos = (long) ((args.length > 3) ? Double.parseDouble(args[3]) : 10) * 1_000_000_000L;
+
+		/* every solver runs once on a small instance, so the first size is measured compiled */
+		File warmup = instance(WARMUP_SIZE, density);
+		for (int s = 0; s < FACTORIES.length; s++) {
+			run(WARMUP_SIZE, NAMES[s], FACTORIES[s], warmup.getPath(), iterations, maxNanos);
+		}
+		warmup.delete();
+
+		System.out.println(String.format("%-8s %-28s %10s %12s %12s %14s %12s", "n", "solver", "load ms",
+				"heap MB", "feasible ms", "iterations/s", "B/iter"));
+
+		for (int n : sizes) {
+			File file = instance(n, density);
+			for (int s = 0; s < FACTORIES.length; s++) {
+				System.out.println(run(n, NAMES[s], FACTORIES[s], file.getPath(), iterations, maxNanos));
+			}
+			file.delete();
+		}
+
+		System.exit(0);
+
+	}
+
+	/**
+	 * Generates an instance into a temporary binary file.
+	 */
+	private static File instance(int n, double density) throws IOException {
+		File file = File.createTempFile("qbf" + n + "-", ".qbfb");
+		file.deleteOnExit();
+		new InstanceGenerator(n, density, -10, 10, n).write(file.getPath());
+		return file;
+	}
+
+	/**
+	 * Measures a solver on an instance, and gives the line of the results.
+	 */
+	private static String run(int n, String name, SolverFactory factory, String filename, int iterations,
+			long maxNanos) throws IOException {
+
+		long heapBefore = usedHeap();
+		long startTime = System.nanoTime();
+		AbstractTS<Integer> solver = factory.create(filename, 0);
+		double loadMillis = (System.nanoTime() - startTime) / 1e6;
+		double heapMegabytes = (usedHeap() - heapBefore) / (double) (1 << 20);
+		solver.verbose = false;
+		solver.setRng(new SplittableRandom(1));
+
+		/* a solve() of no iterations builds the first feasible solution */
+		startTime = System.nanoTime();
+		solver.solve();
+		double feasibleMillis = (System.nanoTime() - startTime) / 1e6;
+
+		/* the iterations then continue from it, as in TSMoveBenchmark */
+		int executed = 0;
+		long allocated = Bench.allocatedBytes();
+		startTime = System.nanoTime();
+		long elapsed = 0;
+		while (executed < iterations && elapsed < maxNanos) {
+			solver.neighborhoodMove();
+			executed++;
+			elapsed = System.nanoTime() - startTime;
+		}
+		allocated = Bench.allocatedBytes() - allocated;
+
+		return String.format("%-8d %-28s %10.1f %12.1f %12.1f %14.2f %12.0f", n, name, loadMillis, heapMegabytes,
+				feasibleMillis, executed / (Math.max(elapsed, 1) / 1e9), (double) allocated / Math.max(executed, 1));
+
+	}
+
+	/**
+	 * Gives the bytes of heap in use after a collection.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int k = 0; k < 2; k++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+}
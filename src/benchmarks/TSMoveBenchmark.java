@@ -0,0 +1,122 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import metaheuristics.tabusearch.AbstractTS;
+import problems.qbf.solvers.TS_QBF;
+import problems.qbfpt.solvers.TS_QBFPT;
+import problems.qbfpt.solvers.TS_QBFPT_Diversification;
+import problems.qbfpt.solvers.TS_QBFPT_PROB;
+import solutions.Solution;
+
+/**
+ * Measures the iterations of the Tabu Search solvers: single calls to
+ * neighborhoodMove() and short solve() runs of a fixed number of iterations,
+ * in first-improving and best-improving modes and at tenures 20 and 100.
+ * Every measurement starts from the same warmed-up solution, the incumbent of
+ * a previous run of the solver, so the constructive heuristic is left out.
+ * Each measured move starts from that solution, with an empty Tabu List and
+ * the solution as incumbent, restored outside the timed region, so the moves
+ * do not drift away from it.
+ * TS_QBF has no first-improving mode and is measured in best-improving mode
+ * only.
+ *
+ * Usage: TSMoveBenchmark [instances, comma separated] [solve iterations]
+ * [warm-up ms] [measurement ms]
+ */
+public class TSMoveBenchmark {
+
+	/**
+	 * Builds the solver of a configuration.
+	 */
+	private interface SolverFactory {
+
+		public abstract AbstractTS<Integer> create(Integer tenure, Integer iterations, String localSearch)
+				throws IOException;
+
+	}
+
+	private static final Integer[] TENURES = { 20, 100 };
+
+	private static final String[] LOCAL_SEARCHES = { "first-improving", "best-improving" };
+
+	/**
+	 * the number of iterations of the runs building the starting solutions.
+	 */
+	private static final int WARMUP_ITERATIONS = 1000;
+
+	public static void main(String[] args) throws IOException {
+
+		String[] instances = (args.length > 0) ? args[0].split(",") : new String[] { "qbf200", "qbf400" };
+		int solveIterations = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+		long warmupMillis = (args.length > 2) ? Long.parseLong(args[2]) : 300;
+		long measureMillis = (args.length > 3) ? Long.parseLong(args[3]) : 1000;
+		Bench bench = new Bench(warmupMillis, measureMillis);
+
+		for (String instance : instances) {
+			String filename = "instances/" + instance;
+
+			Solution<Integer> qbfStart = warmedUp(new TS_QBF(20, WARMUP_ITERATIONS, filename));
+			Solution<Integer> ptStart = warmedUp(new TS_QBFPT(20, WARMUP_ITERATIONS, filename, "best-improving"));
+			System.out.println("\n" + instance + ": QBF start cost=" + qbfStart.cost + ", PT start cost="
+					+ ptStart.cost);
+
+			run(bench, instance, "TS_QBF", qbfStart, solveIterations,
+					(tenure, iterations, localSearch) -> localSearch.equals("best-improving")
+							? new TS_QBF(tenure, iterations, filename) : null);
+			run(bench, instance, "TS_QBFPT", ptStart, solveIterations,
+					(tenure, iterations, localSearch) -> new TS_QBFPT(tenure, iterations, filename, localSearch));
+			run(bench, instance, "TS_QBFPT_PROB", ptStart, solveIterations,
+					(tenure, iterations, localSearch) -> new TS_QBFPT_PROB(tenure, iterations, filename,
+							localSearch, 0.5));
+			run(bench, instance, "TS_QBFPT_Diversification", ptStart, solveIterations,
+					(tenure, iterations, localSearch) -> new TS_QBFPT_Diversification(tenure, iterations,
+							filename, localSearch, 100));
+		}
+
+	}
+
+	/**
+	 * Measures a solver in every mode and at every tenure.
+	 */
+	private static void run(Bench bench, String instance, String name, Solution<Integer> start,
+			int solveIterations, SolverFactory factory) throws IOException {
+
+		for (Integer tenure : TENURES) {
+			for (String localSearch : LOCAL_SEARCHES) {
+
+				AbstractTS<Integer> mover = prepare(factory.create(tenure, 0, localSearch), start);
+				if (mover == null)
+					continue;
+				String label = instance + " " + name + " " + localSearch + " tenure=" + tenure;
+				System.out.println(bench.measure(label + " move", 1, () -> {
+					mover.setRng(new SplittableRandom(1));
+					mover.reset(start);
+				}, () -> {
+					mover.neighborhoodMove();
+					return 0.0;
+				}));
+
+				AbstractTS<Integer> solver = prepare(factory.create(tenure, solveIterations, localSearch), start);
+				System.out.println(bench.measure(label + " solve", solveIterations, () -> solver.solve().cost));
+			}
+		}
+
+	}
+
+	private static AbstractTS<Integer> prepare(AbstractTS<Integer> solver, Solution<Integer> start) {
+		if (solver == null)
+			return null;
+		solver.verbose = false;
+		solver.setRng(new SplittableRandom(1));
+		solver.setInitialSolution(start);
+		return solver;
+	}
+
+	private static Solution<Integer> warmedUp(AbstractTS<Integer> solver) {
+		solver.verbose = false;
+		return solver.solve();
+	}
+
+}
@@ -0,0 +1,406 @@
+package metaheuristics.tabusearch;
+
+import java.util.SplittableRandom;
+
+import problems.IntEvaluator;
+import solutions.IntSolution;
+
+/**
+ * The primitive counterpart of {@link AbstractTS}, for problems whose
+ * elements are the integers of a domain {0, ..., n-1}. The candidates are
+ * ints, kept in an {@link IntCandidateList}, the solutions are
+ * {@link IntSolution}s, the tabu memory is an {@link ExpirationTabuList}, and
+ * the costs of the current and incumbent solutions are doubles held by the
+ * solver, so an iteration boxes nothing and allocates nothing: the incumbent
+ * is copied into a solution allocated once per search. The cost field of a
+ * solution is only set when it leaves the solver.
+ *
+ * The search is the one of {@link AbstractTS}, step by step: same
+ * constructive heuristic, same stopping rules, same random numbers, so a port
+ * of a solver of {@link AbstractTS} whose moves follow the same rules finds
+ * the same solutions. Cooperation between solvers is not supported.
+ */
+public abstract class AbstractIntTS {
+
+	/**
+	 * flag that indicates whether the code should print more information on
+	 * screen
+	 */
+	public boolean verbose = true;
+
+	/**
+	 * the random number generator of this solver.
+	 */
+	protected SplittableRandom rng = new SplittableRandom(0);
+
+	/**
+	 * a cost that stops the search as soon as the incumbent reaches it.
+	 */
+	protected double targetCost = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * the criterion that ends the search, or null to stop after
+	 * {@link #iterations} iterations or {@link AbstractTS#TIME_LIMIT_SECONDS}
+	 * seconds, whichever comes first.
+	 */
+	protected Termination termination;
+
+	/**
+	 * the trace receiving a record per iteration, or null if the search is
+	 * not traced.
+	 */
+	protected ConvergenceTrace trace;
+
+	/**
+	 * the move applied by the last call to {@link #neighborhoodMove()}, which
+	 * sets it.
+	 */
+	protected AbstractTS.Move lastMove = AbstractTS.Move.NONE;
+
+	/**
+	 * the nanoseconds from the start of the last call to {@link #solve()} to
+	 * the last improvement of its incumbent.
+	 */
+	protected long timeToBest;
+
+	/**
+	 * why the last call to {@link #solve()} stopped.
+	 */
+	protected String stopReason;
+
+	/**
+	 * flag set by another thread to stop the search.
+	 */
+	private volatile boolean stopRequested = false;
+
+	/**
+	 * the number of iterations executed by the last call to {@link #solve()}.
+	 */
+	protected int executedIterations = 0;
+
+	/**
+	 * the solution the search starts from, or null if it starts from the
+	 * solution built by the constructive heuristic.
+	 */
+	protected IntSolution initialSol;
+
+	/**
+	 * the objective function being optimized
+	 */
+	protected final IntEvaluator ObjFunction;
+
+	/**
+	 * the costs of the incumbent and of the current solutions.
+	 */
+	protected double incumbentCost, currentCost;
+
+	/**
+	 * the incumbent solution
+	 */
+	protected IntSolution incumbentSol;
+
+	/**
+	 * the current solution
+	 */
+	protected IntSolution currentSol;
+
+	/**
+	 * the number of iterations the TS main loop executes.
+	 */
+	protected int iterations;
+
+	/**
+	 * the tabu tenure.
+	 */
+	protected int tenure;
+
+	/**
+	 * the Candidate List of elements to enter the solution.
+	 */
+	protected IntCandidateList CL;
+
+	/**
+	 * the Tabu List of elements to enter the solution.
+	 */
+	protected ExpirationTabuList TL;
+
+	/**
+	 * the buffers of the constructive heuristic: the insertion costs of the
+	 * candidates, and the Restricted Candidate List.
+	 */
+	private double[] constructiveDeltas;
+	private int[] RCL;
+
+	/**
+	 * Creates the Candidate List.
+	 *
+	 * @return The Candidate List.
+	 */
+	public abstract IntCandidateList makeCL();
+
+	/**
+	 * Creates the Tabu List.
+	 *
+	 * @return The Tabu List.
+	 */
+	public abstract ExpirationTabuList makeTL();
+
+	/**
+	 * Updates the Candidate List according to the current solution.
+	 */
+	public abstract void updateCL();
+
+	/**
+	 * Creates a new solution which is empty.
+	 *
+	 * @return An empty solution.
+	 */
+	public abstract IntSolution createEmptySol();
+
+	/**
+	 * Applies a neighborhood move to the current solution, keeping
+	 * {@link #currentCost} up to date and setting {@link #lastMove}.
+	 */
+	public abstract void neighborhoodMove();
+
+	/**
+	 * Constructor for the AbstractIntTS class.
+	 *
+	 * @param objFunction
+	 *            The objective function being minimized.
+	 * @param tenure
+	 *            The Tabu tenure parameter.
+	 * @param iterations
+	 *            The number of iterations which the TS will be executed.
+	 */
+	public AbstractIntTS(IntEvaluator objFunction, int tenure, int iterations) {
+		this.ObjFunction = objFunction;
+		this.tenure = tenure;
+		this.iterations = iterations;
+	}
+
+	public void setRng(SplittableRandom rng) {
+		this.rng = rng;
+	}
+
+	/**
+	 * Sets a cost that stops the search as soon as the incumbent reaches it.
+	 */
+	public void setTargetCost(double targetCost) {
+		this.targetCost = targetCost;
+	}
+
+	/**
+	 * Replaces the criterion that ends the search, as
+	 * {@link AbstractTS#setTermination(Termination)} does.
+	 */
+	public void setTermination(Termination termination) {
+		this.termination = termination;
+	}
+
+	/**
+	 * Traces the following searches, or stops tracing them if null.
+	 */
+	public void setTrace(ConvergenceTrace trace) {
+		this.trace = trace;
+	}
+
+	/**
+	 * Makes the search start from a given solution, which is not modified,
+	 * or from the constructive heuristic if null.
+	 */
+	public void setInitialSolution(IntSolution initialSol) {
+		this.initialSol = initialSol;
+	}
+
+	/**
+	 * Asks the search to stop at the end of the current iteration. It may be
+	 * called from any thread. The next call to {@link #solve()} forgets the
+	 * request.
+	 */
+	public void requestStop() {
+		stopRequested = true;
+	}
+
+	public int getExecutedIterations() {
+		return executedIterations;
+	}
+
+	/**
+	 * Gives the time from the start of the last call to {@link #solve()} to
+	 * the last improvement of its incumbent, in seconds.
+	 */
+	public double getTimeToBest() {
+		return timeToBest / 1e9;
+	}
+
+	/**
+	 * Tells why the last call to {@link #solve()} stopped (see
+	 * {@link AbstractTS#getStopReason()}).
+	 */
+	public String getStopReason() {
+		return stopReason;
+	}
+
+	/**
+	 * Inserts a candidate element into the current solution, removing it from
+	 * the Candidate List and updating the solution cost.
+	 *
+	 * @param elem
+	 *            the element entering the solution.
+	 */
+	protected void insertElement(int elem) {
+		CL.removeElement(elem);
+		currentSol.addElement(elem);
+		currentCost += ObjFunction.commitInsertion(elem, currentSol);
+	}
+
+	/**
+	 * Removes an element from the current solution, returning it to the
+	 * Candidate List and updating the solution cost.
+	 *
+	 * @param elem
+	 *            the element leaving the solution.
+	 */
+	protected void removeElement(int elem) {
+		currentSol.removeElement(elem);
+		currentCost += ObjFunction.commitRemoval(elem, currentSol);
+		CL.add(elem);
+	}
+
+	/**
+	 * Starts the search from an empty current solution and a new Candidate
+	 * List.
+	 */
+	private void startEmpty() {
+		CL = makeCL();
+		currentSol = createEmptySol();
+		currentCost = ObjFunction.evaluate(currentSol);
+	}
+
+	/**
+	 * The constructive heuristic of {@link AbstractTS#constructiveHeuristic()}:
+	 * while the solution improves, one of the candidates of least insertion
+	 * cost enters it, chosen at random.
+	 *
+	 * @return A feasible solution to the problem being minimized.
+	 */
+	public IntSolution constructiveHeuristic() {
+
+		startEmpty();
+		if (constructiveDeltas == null || constructiveDeltas.length < ObjFunction.domainSize()) {
+			constructiveDeltas = new double[ObjFunction.domainSize()];
+			RCL = new int[ObjFunction.domainSize()];
+		}
+		double previousCost = Double.POSITIVE_INFINITY;
+
+		while (previousCost > currentCost) {
+
+			previousCost = currentCost;
+			updateCL();
+
+			int size = CL.size();
+			ObjFunction.evaluateInsertionCosts(CL.elements(), size, currentSol, constructiveDeltas);
+			double minCost = Double.POSITIVE_INFINITY;
+			for (int k = 0; k < size; k++) {
+				if (constructiveDeltas[k] < minCost)
+					minCost = constructiveDeltas[k];
+			}
+
+			int rclSize = 0;
+			for (int k = 0; k < size; k++) {
+				if (constructiveDeltas[k] <= minCost)
+					RCL[rclSize++] = CL.get(k);
+			}
+
+			insertElement(RCL[rng.nextInt(rclSize)]);
+
+		}
+
+		return currentSol;
+	}
+
+	/**
+	 * Makes a copy of a given solution the current one, inserting its
+	 * elements one at a time into an empty solution.
+	 *
+	 * @param sol
+	 *            the solution to start from, which is not modified.
+	 * @return The current solution.
+	 */
+	public IntSolution startFrom(IntSolution sol) {
+
+		startEmpty();
+		for (int j = 0; j < sol.size(); j++)
+			insertElement(sol.elementAt(j));
+
+		return currentSol;
+	}
+
+	/**
+	 * The TS mainframe, as {@link AbstractTS#solve()}.
+	 *
+	 * @return The best feasible solution obtained throughout all iterations,
+	 *         with its cost.
+	 */
+	public IntSolution solve() {
+		Termination criterion = (termination != null) ? termination
+				: Termination.anyOf(Termination.iterations(iterations),
+						Termination.seconds(AbstractTS.TIME_LIMIT_SECONDS));
+		long startTime = System.nanoTime();
+		stopRequested = false;
+
+		incumbentSol = createEmptySol();
+		incumbentCost = incumbentSol.cost;
+		if (initialSol != null)
+			startFrom(initialSol);
+		else
+			constructiveHeuristic();
+		TL = makeTL();
+		criterion.start();
+		timeToBest = System.nanoTime() - startTime;
+		int i = 0;
+		int bestIteration = 0;
+		if (trace != null)
+			trace.record(0, System.nanoTime() - startTime, currentCost, incumbentCost, AbstractTS.Move.NONE,
+					CL.size());
+		while (true) {
+			if (incumbentCost <= targetCost) {
+				stopReason = "target";
+				break;
+			}
+			if (stopRequested) {
+				stopReason = "stop requested";
+				break;
+			}
+			if (criterion.reached(i, incumbentCost, i - bestIteration)) {
+				stopReason = criterion.reason();
+				break;
+			}
+			lastMove = AbstractTS.Move.NONE;
+			neighborhoodMove();
+			if (incumbentCost > currentCost) {
+				incumbentSol.copyFrom(currentSol);
+				incumbentCost = currentCost;
+				bestIteration = i + 1;
+				timeToBest = System.nanoTime() - startTime;
+				if (verbose) {
+					incumbentSol.cost = incumbentCost;
+					System.out.println("(Iter. " + i + ") BestSol = " + incumbentSol);
+				}
+			}
+			i++;
+			if (trace != null)
+				trace.record(i, System.nanoTime() - startTime, currentCost, incumbentCost, lastMove, CL.size());
+		}
+		executedIterations = i;
+		if (verbose)
+			System.out.println("Stopped by " + stopReason + " after " + i + " iterations");
+
+		currentSol.cost = currentCost;
+		incumbentSol.cost = incumbentCost;
+		return incumbentSol;
+
+	}
+
+}
@@ -3,11 +3,9 @@
  */
 package metaheuristics.tabusearch;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Random;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
 
 import problems.Evaluator;
 import solutions.Solution;
@@ -21,16 +19,99 @@ import solutions.Solution;
  */
 public abstract class AbstractTS<E> {
 
+	/**
+	 * The kind of move applied by an iteration of the search.
+	 */
+	public enum Move {
+		NONE, INSERTION, REMOVAL, EXCHANGE, RESTART
+	}
+
 	/**
 	 * flag that indicates whether the code should print more information on
 	 * screen
 	 */
-	public static boolean verbose = true;
+	public boolean verbose = true;
+
+	/**
+	 * the random number generator of this solver, so that solvers running
+	 * side by side do not share a stream.
+	 */
+	protected SplittableRandom rng = new SplittableRandom(0);
+
+	/**
+	 * a cost that stops the search as soon as the incumbent reaches it.
+	 */
+	protected Double targetCost = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * the criterion that ends the search, or null to stop after
+	 * {@link #iterations} iterations or {@link #TIME_LIMIT_SECONDS} seconds,
+	 * whichever comes first.
+	 */
+	protected Termination termination;
+
+	/**
+	 * the time limit of a search without a termination criterion, about half
+	 * an hour.
+	 */
+	public static final double TIME_LIMIT_SECONDS = 1800;
+
+	/**
+	 * the nanoseconds from the start of the last call to {@link #solve()} to
+	 * the last improvement of its incumbent.
+	 */
+	protected long timeToBest;
+
+	/**
+	 * why the last call to {@link #solve()} stopped.
+	 */
+	protected String stopReason;
+
+	/**
+	 * the trace receiving a record per iteration, or null if the search is
+	 * not traced.
+	 */
+	protected ConvergenceTrace trace;
+
+	/**
+	 * the live metrics of the search, registered as an MBean while it runs,
+	 * or null if the search is not monitored.
+	 */
+	protected SolverMetrics metrics;
+
+	/**
+	 * the move applied by the last call to {@link #neighborhoodMove()}, which
+	 * sets it, or {@link Move#NONE} if it applied none.
+	 */
+	protected Move lastMove = Move.NONE;
+
+	/**
+	 * flag set by another thread to stop the search.
+	 */
+	private volatile boolean stopRequested = false;
+
+	/**
+	 * a condition, set by whoever runs the search, that stops it once it
+	 * holds, or null if there is none.
+	 */
+	private BooleanSupplier stopCondition;
+
+	/**
+	 * the number of iterations executed by the last call to {@link #solve()}.
+	 */
+	protected Integer executedIterations = 0;
 
 	/**
-	 * a random number generator
+	 * the channel through which the solver shares incumbents with other
+	 * solvers, or null if it searches alone.
 	 */
-	public static Random rng = new Random(0);
+	protected Cooperation<E> cooperation;
+
+	/**
+	 * the solution the search starts from, or null if it starts from the
+	 * solution built by the constructive heuristic.
+	 */
+	protected Solution<E> initialSol;
 
 	/**
 	 * the objective function being optimized
@@ -80,7 +161,7 @@ public abstract class AbstractTS<E> {
 	/**
 	 * the Tabu List of elements to enter the solution.
 	 */
-	protected ArrayDeque<E> TL;
+	protected TabuList<E> TL;
 
 	/**
 	 * Creates the Candidate List, which is an ArrayList of candidate elements
@@ -99,13 +180,13 @@ public abstract class AbstractTS<E> {
 	public abstract ArrayList<E> makeRCL();
 	
 	/**
-	 * Creates the Tabu List, which is an ArrayDeque of the Tabu
-	 * candidate elements. The number of iterations a candidate
-	 * is considered tabu is given by the Tabu Tenure {@link #tenure}
+	 * Creates the Tabu List, which keeps the Tabu candidate elements.
+	 * The number of iterations a candidate is considered tabu is given
+	 * by the Tabu Tenure {@link #tenure}
 	 * 
 	 * @return The Tabu List.
 	 */
-	public abstract ArrayDeque<E> makeTL();
+	public abstract TabuList<E> makeTL();
 
 	/**
 	 * Updates the Candidate List according to the incumbent solution
@@ -150,6 +231,188 @@ public abstract class AbstractTS<E> {
 		this.iterations = iterations;
 	}
 
+	/**
+	 * Replaces the random number generator of the solver.
+	 * 
+	 * @param rng
+	 *            the generator used by the solver from now on.
+	 */
+	public void setRng(SplittableRandom rng) {
+		this.rng = rng;
+	}
+
+	/**
+	 * Sets a cost that stops the search as soon as the incumbent reaches it.
+	 * 
+	 * @param targetCost
+	 *            the target cost.
+	 */
+	public void setTargetCost(Double targetCost) {
+		this.targetCost = targetCost;
+	}
+
+	/**
+	 * Replaces the criterion that ends the search. The target cost and
+	 * {@link #requestStop()} stop the search as well, whatever the
+	 * criterion.
+	 * 
+	 * @param termination
+	 *            the criterion, or null to stop after the number of
+	 *            iterations of the solver or {@link #TIME_LIMIT_SECONDS}
+	 *            seconds.
+	 */
+	public void setTermination(Termination termination) {
+		this.termination = termination;
+	}
+
+	/**
+	 * Gives the time from the start of the last call to {@link #solve()} to
+	 * the last improvement of its incumbent, the constructive heuristic
+	 * included.
+	 * 
+	 * @return the time to the best solution, in seconds.
+	 */
+	public double getTimeToBest() {
+		return timeToBest / 1e9;
+	}
+
+	/**
+	 * Traces the following searches, recording every iteration.
+	 * 
+	 * @param trace
+	 *            the trace, or null to stop tracing.
+	 */
+	public void setTrace(ConvergenceTrace trace) {
+		this.trace = trace;
+	}
+
+	/**
+	 * Monitors the following searches through JMX (see
+	 * {@link SolverMetrics}).
+	 * 
+	 * @param metrics
+	 *            the metrics, or null to stop monitoring.
+	 */
+	public void setMetrics(SolverMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Tells why the last call to {@link #solve()} stopped: the reason of the
+	 * termination criterion that was reached (see
+	 * {@link Termination#reason()}), "target" or "stop requested".
+	 * 
+	 * @return the reason of the stop.
+	 */
+	public String getStopReason() {
+		return stopReason;
+	}
+
+	/**
+	 * Asks the search to stop at the end of the current iteration. It may be
+	 * called from any thread. A request only applies to the search running
+	 * when it is made: the next call to {@link #solve()} forgets it.
+	 */
+	public void requestStop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Makes the following searches also stop, at the end of an iteration, as
+	 * soon as a condition holds. Unlike a request made by
+	 * {@link #requestStop()}, the condition is not forgotten when a search
+	 * starts, so it also stops searches that start after it holds. It is
+	 * checked once per iteration, so it must be cheap, and it may be set by
+	 * another thread.
+	 * 
+	 * @param stopCondition
+	 *            the condition, or null for none.
+	 */
+	public void setStopCondition(BooleanSupplier stopCondition) {
+		this.stopCondition = stopCondition;
+	}
+
+	/**
+	 * Gives the number of iterations executed by the last call to
+	 * {@link #solve()}.
+	 * 
+	 * @return the number of iterations executed.
+	 */
+	public Integer getExecutedIterations() {
+		return executedIterations;
+	}
+
+	/**
+	 * Connects the solver to other solvers searching the same problem.
+	 * 
+	 * @param cooperation
+	 *            the channel shared with the other solvers, or null to search
+	 *            alone.
+	 */
+	public void setCooperation(Cooperation<E> cooperation) {
+		this.cooperation = cooperation;
+	}
+
+	/**
+	 * Makes the search start from a given solution, skipping the constructive
+	 * heuristic.
+	 * 
+	 * @param initialSol
+	 *            the solution to start from, which is not modified, or null
+	 *            to start from the constructive heuristic.
+	 */
+	public void setInitialSolution(Solution<E> initialSol) {
+		this.initialSol = initialSol;
+	}
+
+	/**
+	 * Inserts a candidate element into the current solution, removing it from
+	 * the Candidate List and updating the solution cost.
+	 * 
+	 * @param elem
+	 *            the element entering the solution.
+	 */
+	protected void insertElement(E elem) {
+		CL.remove(elem);
+		currentSol.add(elem);
+		ObjFunction.commitInsertion(elem, currentSol);
+	}
+
+	/**
+	 * Removes an element from the current solution, returning it to the
+	 * Candidate List and updating the solution cost.
+	 * 
+	 * @param elem
+	 *            the element leaving the solution.
+	 */
+	protected void removeElement(E elem) {
+		currentSol.remove(elem);
+		ObjFunction.commitRemoval(elem, currentSol);
+		CL.add(elem);
+	}
+
+	/**
+	 * Replaces the current solution by the elements of another solution,
+	 * removing and inserting one element at a time so the Candidate List and
+	 * the solution cost are kept up to date. A tenth of the elements are then
+	 * dropped at random and made tabu, otherwise a deterministic search would
+	 * retrace the path that led to the solution.
+	 * 
+	 * @param sol
+	 *            the solution to restart from, which is not modified.
+	 */
+	protected void restartFrom(Solution<E> sol) {
+		while (!currentSol.isEmpty())
+			removeElement(currentSol.get(currentSol.size() - 1));
+		for (E elem : sol)
+			insertElement(elem);
+		for (int drops = (currentSol.size() + 9) / 10; drops > 0; drops--) {
+			E elem = currentSol.get(rng.nextInt(currentSol.size()));
+			removeElement(elem);
+			TL.add(elem);
+		}
+	}
+
 	/**
 	 * The TS constructive heuristic, which is responsible for building a
 	 * feasible solution by selecting in a greedy fashion, candidate
@@ -162,6 +425,7 @@ public abstract class AbstractTS<E> {
 		CL = makeCL();
 		RCL = makeRCL();
 		currentSol = createEmptySol();
+		ObjFunction.evaluate(currentSol);
 		currentCost = Double.POSITIVE_INFINITY;
 
 		/* Main loop, which repeats until the stopping criteria is reached. */
@@ -197,9 +461,7 @@ public abstract class AbstractTS<E> {
 			/* Choose a candidate randomly from the RCL */
 			int rndIndex = rng.nextInt(RCL.size());
 			E inCand = RCL.get(rndIndex);
-			CL.remove(inCand);
-			currentSol.add(inCand);
-			ObjFunction.evaluate(currentSol);
+			insertElement(inCand);
 			RCL.clear();
 
 		}
@@ -208,52 +470,150 @@ public abstract class AbstractTS<E> {
 	}
 
 	/**
-	 * The TS mainframe. It consists of a constructive heuristic followed by
+	 * Makes a copy of a given solution the current one, inserting its
+	 * elements one at a time into an empty solution, as the constructive
+	 * heuristic does with the elements it chooses.
+	 * 
+	 * @param sol
+	 *            the solution to start from, which is not modified.
+	 * @return The current solution.
+	 */
+	public Solution<E> startFrom(Solution<E> sol) {
+
+		CL = makeCL();
+		RCL = makeRCL();
+		currentSol = createEmptySol();
+		ObjFunction.evaluate(currentSol);
+		for (E elem : sol)
+			insertElement(elem);
+
+		return currentSol;
+	}
+
+	/**
+	 * Puts the solver in the state of a search at a given solution, without
+	 * searching: the current solution, the Candidate List and the state of
+	 * the objective function are rebuilt from the solution, as by
+	 * {@link #startFrom}, the Tabu List is emptied and the incumbent becomes
+	 * a copy of the solution. The following calls to
+	 * {@link #neighborhoodMove()} then move from there, as the iterations of
+	 * {@link #solve()} do, but nothing outside {@link #solve()} updates the
+	 * incumbent.
+	 * 
+	 * @param sol
+	 *            the solution to move from, which is not modified.
+	 */
+	public void reset(Solution<E> sol) {
+		startFrom(sol);
+		TL = makeTL();
+		incumbentSol = currentSol.copy();
+		lastMove = Move.NONE;
+	}
+
+	/**
+	 * The TS mainframe. It consists of a constructive heuristic, unless an
+	 * initial solution was given by {@link #setInitialSolution}, followed by
 	 * a loop, in which each iteration a neighborhood move is performed on
 	 * the current solution. The best solution is returned as result.
+	 * The loop stops as soon as the termination criterion (see
+	 * {@link #setTermination}) is reached, the incumbent reaches the target
+	 * cost or a stop is requested, all of them checked before each iteration.
+	 * 
+	 * While the search runs, the objective function is wrapped by the
+	 * counters of the metrics, if any (see {@link #setMetrics}).
 	 * 
 	 * @return The best feasible solution obtained throughout all iterations.
 	 */
 	public Solution<E> solve() {
-		/* Limitar o tempo em aproximadamente 30 min*/
-		Integer timeoutSeconds = 1800;
-		Timer timer = new Timer();
-		
-		class RemindTask extends TimerTask{
-			private Boolean timeout = false;
-			
-			public Boolean timeout() {
-				return this.timeout;
-			}
-			
-			public void run() {
-	            timer.cancel();
-	            timeout = true;
-	        }
-		};
-		
-		RemindTask task = new RemindTask();
-		// This function use milliseconds
-		timer.schedule(task, timeoutSeconds*1000);
-		
+		if (metrics == null)
+			return search();
+
+		Evaluator<E> objFunction = ObjFunction;
+		ObjFunction = metrics.count(objFunction);
+		metrics.register();
+		try {
+			return search();
+		} finally {
+			ObjFunction = objFunction;
+			metrics.unregister();
+		}
+	}
+
+	/**
+	 * The main loop of {@link #solve()}.
+	 */
+	private Solution<E> search() {
+		/* a stop requested during a previous search does not stop this one */
+		stopRequested = false;
+		Termination criterion = (termination != null) ? termination
+				: Termination.anyOf(Termination.iterations(iterations), Termination.seconds(TIME_LIMIT_SECONDS));
+		double target = targetCost;
+		long startTime = System.nanoTime();
+
 		/* Execuo */
 		incumbentSol = createEmptySol();
-		constructiveHeuristic();
+		if (initialSol != null)
+			startFrom(initialSol);
+		else
+			constructiveHeuristic();
 		TL = makeTL();
-		for (int i = 0; i < iterations; i++) {
+		criterion.start();
+		timeToBest = System.nanoTime() - startTime;
+		int i = 0;
+		int lastImprovement = 0, bestIteration = 0;
+		if (trace != null)
+			trace.record(0, System.nanoTime() - startTime, currentSol.cost, incumbentSol.cost, Move.NONE, CL.size());
+		if (metrics != null)
+			metrics.publish(0, currentSol.cost, incumbentSol.cost, timeToBest, TL);
+		while (true) {
+			if (incumbentSol.cost <= target) {
+				stopReason = "target";
+				break;
+			}
+			if (stopRequested || (stopCondition != null && stopCondition.getAsBoolean())) {
+				stopReason = "stop requested";
+				break;
+			}
+			if (criterion.reached(i, incumbentSol.cost, i - bestIteration)) {
+				stopReason = criterion.reason();
+				break;
+			}
+			lastMove = Move.NONE;
 			neighborhoodMove();
 			if (incumbentSol.cost > currentSol.cost) {
-				incumbentSol = new Solution<E>(currentSol);
+				incumbentSol = currentSol.copy();
+				lastImprovement = i;
+				bestIteration = i + 1;
+				timeToBest = System.nanoTime() - startTime;
 				if (verbose)
 					System.out.println("(Iter. " + i + ") BestSol = " + incumbentSol);
+				if (cooperation != null)
+					cooperation.publish(incumbentSol);
 			}
-			
-			//Verifica se deu o timeout
-			if(task.timeout()) {
-				System.out.println("Timeout");
-				break;
+			if (cooperation != null) {
+				Solution<E> elite = cooperation.restart(i - lastImprovement);
+				if (elite != null) {
+					restartFrom(elite);
+					lastMove = Move.RESTART;
+					lastImprovement = i;
+					if (incumbentSol.cost > currentSol.cost) {
+						incumbentSol = currentSol.copy();
+						bestIteration = i + 1;
+						timeToBest = System.nanoTime() - startTime;
+					}
+				}
 			}
+			i++;
+			if (trace != null)
+				trace.record(i, System.nanoTime() - startTime, currentSol.cost, incumbentSol.cost, lastMove, CL.size());
+			if (metrics != null)
+				metrics.iteration(i, currentSol.cost, incumbentSol.cost, timeToBest, TL);
 		}
+		executedIterations = i;
+		if (metrics != null)
+			metrics.publish(i, currentSol.cost, incumbentSol.cost, timeToBest, TL);
+		if (verbose)
+			System.out.println("Stopped by " + stopReason + " after " + i + " iterations");
 
 		return incumbentSol;
 		
@@ -0,0 +1,319 @@
+package metaheuristics.tabusearch;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The convergence trace of a Tabu Search: one record per iteration of
+ * {@link AbstractTS#solve()}, with the iteration, the nanoseconds elapsed
+ * since the start of solve(), the costs of the current and of the incumbent
+ * solutions, the move applied (see {@link AbstractTS.Move}) and the size of
+ * the Candidate List. Record 0 is the first solution, before any move.
+ *
+ * The solver stores the records in a preallocated ring of primitive arrays,
+ * and a writer thread of the trace drains the ring into the file, so the
+ * solver neither allocates nor writes. It only waits, yielding, if the writer
+ * falls a whole ring behind. Tracing reads no random numbers and takes no
+ * decision, so it does not change the search.
+ *
+ * The file is written in one of two formats:
+ *
+ * <ul>
+ * <li>CSV, with the header
+ * {@code iteration,nanos,current,incumbent,move,cl_size} and the move by
+ * name;</li>
+ * <li>binary, with the 8 ASCII bytes "TSTRACE1" followed by records of 33
+ * big-endian bytes: the iteration (int), the nanoseconds (long), the current
+ * and incumbent costs (double), the ordinal of the move (byte) and the size
+ * of the Candidate List (int).</li>
+ * </ul>
+ *
+ * A trace is filled by one search at a time, and every record reaches the
+ * file once it is closed.
+ */
+public class ConvergenceTrace implements AutoCloseable {
+
+	/**
+	 * The format of a trace file.
+	 */
+	public enum Format {
+		CSV, BINARY
+	}
+
+	/**
+	 * the first bytes of a binary trace.
+	 */
+	public static final String MAGIC = "TSTRACE1";
+
+	/**
+	 * the number of records of the ring by default.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	private static final AbstractTS.Move[] MOVES = AbstractTS.Move.values();
+
+	private final String filename;
+
+	private final Format format;
+
+	/**
+	 * the capacity of the ring minus one, the capacity being a power of two.
+	 */
+	private final int mask;
+
+	/**
+	 * the fields of the records, the record of position p being at index
+	 * p &amp; mask.
+	 */
+	private final int[] iterations;
+	private final long[] nanos;
+	private final double[] currentCosts;
+	private final double[] incumbentCosts;
+	private final byte[] moves;
+	private final int[] clSizes;
+
+	/**
+	 * the number of records stored, published by the solver to the writer.
+	 */
+	private final AtomicLong stored = new AtomicLong();
+
+	/**
+	 * the number of records written, published by the writer to the solver.
+	 */
+	private volatile long written = 0;
+
+	/**
+	 * the solver's copies of {@link #stored}, and of the number of records
+	 * it may store before checking the writer again.
+	 */
+	private long count = 0, limit;
+
+	private volatile boolean closed = false;
+
+	private IOException failure;
+
+	private final Thread writer;
+
+	/**
+	 * Opens a trace file whose format is given by its name, CSV if it ends in
+	 * ".csv" and binary otherwise, with a ring of the default capacity.
+	 *
+	 * @param filename
+	 *            Name of the file receiving the trace.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public ConvergenceTrace(String filename) throws IOException {
+		this(filename, filename.endsWith(".csv") ? Format.CSV : Format.BINARY, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Opens a trace file.
+	 *
+	 * @param filename
+	 *            Name of the file receiving the trace.
+	 * @param format
+	 *            the format of the file.
+	 * @param capacity
+	 *            the number of records of the ring, rounded up to a power of
+	 *            two.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public ConvergenceTrace(String filename, Format format, int capacity) throws IOException {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.filename = filename;
+		this.format = format;
+		mask = size - 1;
+		limit = size;
+		iterations = new int[size];
+		nanos = new long[size];
+		currentCosts = new double[size];
+		incumbentCosts = new double[size];
+		moves = new byte[size];
+		clSizes = new int[size];
+
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(filename), 1 << 16);
+		writer = new Thread(() -> drain(out), "trace-" + filename);
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Stores the record of an iteration.
+	 *
+	 * @param iteration
+	 *            the number of iterations executed.
+	 * @param elapsedNanos
+	 *            the nanoseconds elapsed since the start of the search.
+	 * @param currentCost
+	 *            the cost of the current solution.
+	 * @param incumbentCost
+	 *            the cost of the incumbent solution.
+	 * @param move
+	 *            the move of the iteration.
+	 * @param clSize
+	 *            the size of the Candidate List.
+	 */
+	public void record(int iteration, long elapsedNanos, double currentCost, double incumbentCost,
+			AbstractTS.Move move, int clSize) {
+		long position = count;
+		if (position >= limit) {
+			LockSupport.unpark(writer);
+			while (position - written > mask) {
+				Thread.yield();
+			}
+			limit = written + mask + 1;
+		}
+		int k = (int) position & mask;
+		iterations[k] = iteration;
+		nanos[k] = elapsedNanos;
+		currentCosts[k] = currentCost;
+		incumbentCosts[k] = incumbentCost;
+		moves[k] = (byte) move.ordinal();
+		clSizes[k] = clSize;
+		count = position + 1;
+		stored.lazySet(position + 1);
+	}
+
+	/**
+	 * Writes the records as they are stored, until the trace is closed and
+	 * every record is written.
+	 */
+	private void drain(OutputStream out) {
+		RecordWriter records = null;
+		try {
+			records = (format == Format.CSV) ? new CsvWriter(out) : new BinaryWriter(out);
+		} catch (IOException e) {
+			failure = e;
+		}
+		while (true) {
+			boolean last = closed;
+			long end = stored.get();
+			long position = written;
+			if (position == end) {
+				if (last)
+					break;
+				LockSupport.parkNanos(this, 1_000_000);
+				continue;
+			}
+			for (; position < end && records != null; position++) {
+				int k = (int) position & mask;
+				try {
+					records.write(iterations[k], nanos[k], currentCosts[k], incumbentCosts[k], moves[k], clSizes[k]);
+				} catch (IOException e) {
+					failure = e;
+					records = null;
+				}
+			}
+			written = end;
+		}
+		try {
+			if (records != null)
+				records.close();
+			else
+				out.close();
+		} catch (IOException e) {
+			if (failure == null)
+				failure = e;
+		}
+	}
+
+	/**
+	 * Writes the remaining records and closes the file.
+	 *
+	 * @throws IOException
+	 *             if the file could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while writing the trace " + filename, e);
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Writes records in a format.
+	 */
+	private interface RecordWriter extends AutoCloseable {
+
+		public abstract void write(int iteration, long nanos, double currentCost, double incumbentCost, byte move,
+				int clSize) throws IOException;
+
+		@Override
+		public abstract void close() throws IOException;
+
+	}
+
+	private static class CsvWriter implements RecordWriter {
+
+		private final Writer out;
+
+		CsvWriter(OutputStream out) throws IOException {
+			this.out = new OutputStreamWriter(out, StandardCharsets.US_ASCII);
+			this.out.write("iteration,nanos,current,incumbent,move,cl_size\n");
+		}
+
+		@Override
+		public void write(int iteration, long nanos, double currentCost, double incumbentCost, byte move, int clSize)
+				throws IOException {
+			out.write(iteration + "," + nanos + "," + currentCost + "," + incumbentCost + "," + MOVES[move] + ","
+					+ clSize + "\n");
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+
+	}
+
+	private static class BinaryWriter implements RecordWriter {
+
+		private final DataOutputStream out;
+
+		BinaryWriter(OutputStream out) throws IOException {
+			this.out = new DataOutputStream(out);
+			this.out.writeBytes(MAGIC);
+		}
+
+		@Override
+		public void write(int iteration, long nanos, double currentCost, double incumbentCost, byte move, int clSize)
+				throws IOException {
+			out.writeInt(iteration);
+			out.writeLong(nanos);
+			out.writeDouble(currentCost);
+			out.writeDouble(incumbentCost);
+			out.writeByte(move);
+			out.writeInt(clSize);
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,37 @@
+package metaheuristics.tabusearch;
+
+import solutions.Solution;
+
+/**
+ * The channel through which a Tabu Search solver shares its incumbents with
+ * other solvers searching the same problem. Both methods are called from the
+ * main loop of {@link AbstractTS#solve()}, once per improvement and once per
+ * iteration respectively, so they must not block.
+ *
+ * @param <E>
+ *            Generic type of the candidate to enter the solution.
+ */
+public interface Cooperation<E> {
+
+	/**
+	 * Publishes a new incumbent of the solver. The solution is a snapshot that
+	 * the solver never modifies afterwards, so it may be kept and read by
+	 * other threads.
+	 *
+	 * @param incumbent
+	 *            the new incumbent solution.
+	 */
+	public abstract void publish(Solution<E> incumbent);
+
+	/**
+	 * Decides whether the solver should abandon its current solution.
+	 *
+	 * @param stagnation
+	 *            the number of iterations since the last improvement of the
+	 *            incumbent or the last restart.
+	 * @return the solution to restart from, which must not be modified, or
+	 *         null to continue the search from the current solution.
+	 */
+	public abstract Solution<E> restart(int stagnation);
+
+}
@@ -0,0 +1,329 @@
+package metaheuristics.tabusearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import solutions.Solution;
+
+/**
+ * Several Tabu Search workers searching the same problem in parallel and
+ * sharing their incumbents. Every improving incumbent of a worker is offered
+ * to a global best solution and to a small pool of elite solutions, both
+ * updated with compare-and-set, so publishing never takes a lock. A worker
+ * whose incumbent has not improved for a number of iterations restarts from
+ * an elite solution chosen at random.
+ *
+ * @param <E>
+ *            Generic type of the candidate to enter the solution.
+ */
+public class CooperativeTS<E> {
+
+	/**
+	 * the factory of the solvers of each worker.
+	 */
+	private final PortfolioTS.SolverFactory<E> factory;
+
+	/**
+	 * the number of workers.
+	 */
+	private final int workers;
+
+	/**
+	 * the seed from which the seeds of each worker are derived.
+	 */
+	private final long masterSeed;
+
+	/**
+	 * the number of solutions kept in the elite pool.
+	 */
+	private int eliteSize = 8;
+
+	/**
+	 * the number of iterations without improvement after which a worker
+	 * restarts from an elite solution.
+	 */
+	private int stagnationLimit = 1000;
+
+	/**
+	 * a cost that stops every worker as soon as one of them reaches it.
+	 */
+	private Double targetCost = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * the best solution published by any worker.
+	 */
+	private final AtomicReference<Solution<E>> globalBest = new AtomicReference<>();
+
+	/**
+	 * the elite pool, whose empty slots are null.
+	 */
+	private AtomicReferenceArray<Solution<E>> elite;
+
+	/**
+	 * the number of restarts from elite solutions.
+	 */
+	private final AtomicInteger restarts = new AtomicInteger();
+
+	/**
+	 * the start of the current call to {@link #solve()}, by
+	 * {@link System#nanoTime()}.
+	 */
+	private long startTime;
+
+	/**
+	 * the elapsed time until the target cost was reached, in nanoseconds, or
+	 * -1 if it was not reached.
+	 */
+	private final AtomicLong timeToTarget = new AtomicLong(-1);
+
+	/**
+	 * the statistics of the last call to {@link #solve()}, by worker.
+	 */
+	private List<PortfolioTS.RunStats> stats = new ArrayList<>();
+
+	/**
+	 * Constructor for the CooperativeTS class.
+	 *
+	 * @param factory
+	 *            the factory of the solvers of each worker.
+	 * @param workers
+	 *            the number of workers, each one running on its own thread.
+	 * @param masterSeed
+	 *            the seed from which the seeds of each worker are derived.
+	 */
+	public CooperativeTS(PortfolioTS.SolverFactory<E> factory, int workers, long masterSeed) {
+		this.factory = factory;
+		this.workers = workers;
+		this.masterSeed = masterSeed;
+	}
+
+	/**
+	 * Sets the number of solutions kept in the elite pool.
+	 *
+	 * @param eliteSize
+	 *            the size of the elite pool.
+	 */
+	public void setEliteSize(int eliteSize) {
+		this.eliteSize = eliteSize;
+	}
+
+	/**
+	 * Sets the number of iterations without improvement after which a worker
+	 * restarts from an elite solution.
+	 *
+	 * @param stagnationLimit
+	 *            the number of iterations.
+	 */
+	public void setStagnationLimit(int stagnationLimit) {
+		this.stagnationLimit = stagnationLimit;
+	}
+
+	/**
+	 * Sets a cost that stops every worker as soon as one of them reaches it.
+	 *
+	 * @param targetCost
+	 *            the target cost.
+	 */
+	public void setTargetCost(Double targetCost) {
+		this.targetCost = targetCost;
+	}
+
+	/**
+	 * Gives the statistics of each worker of the last call to
+	 * {@link #solve()}.
+	 *
+	 * @return the statistics, ordered by worker.
+	 */
+	public List<PortfolioTS.RunStats> getStats() {
+		return stats;
+	}
+
+	/**
+	 * Gives the number of restarts from elite solutions of the last call to
+	 * {@link #solve()}.
+	 *
+	 * @return the number of restarts.
+	 */
+	public int getRestarts() {
+		return restarts.get();
+	}
+
+	/**
+	 * Gives the time the last call to {@link #solve()} took to reach the
+	 * target cost.
+	 *
+	 * @return the time in seconds, or a negative value if the target was not
+	 *         reached.
+	 */
+	public double getTimeToTarget() {
+		long nanos = timeToTarget.get();
+		return (nanos < 0) ? -1.0 : nanos / 1e9;
+	}
+
+	/**
+	 * Executes every worker and waits for them to finish.
+	 *
+	 * @return the best solution found by any worker.
+	 * @throws Exception
+	 *             if a solver cannot be built or a worker fails.
+	 */
+	public Solution<E> solve() throws Exception {
+
+		SplittableRandom master = new SplittableRandom(masterSeed);
+		long[] seeds = new long[workers];
+		for (int w = 0; w < workers; w++) {
+			seeds[w] = master.nextLong();
+		}
+
+		globalBest.set(null);
+		elite = new AtomicReferenceArray<>(eliteSize);
+		restarts.set(0);
+		timeToTarget.set(-1);
+
+		List<AbstractTS<E>> created = new ArrayList<>();
+		for (int w = 0; w < workers; w++) {
+			AbstractTS<E> solver = factory.create(w);
+			SplittableRandom rng = new SplittableRandom(seeds[w]);
+			solver.verbose = false;
+			solver.setRng(rng.split());
+			solver.setTargetCost(targetCost);
+			solver.setCooperation(new Channel(rng));
+			solver.setStopCondition(() -> timeToTarget.get() >= 0);
+			created.add(solver);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers));
+		List<Future<Solution<E>>> futures = new ArrayList<>();
+		double[] seconds = new double[workers];
+		Integer[] iterations = new Integer[workers];
+
+		startTime = System.nanoTime();
+		for (int w = 0; w < workers; w++) {
+			final int r = w;
+			futures.add(executor.submit(() -> {
+				AbstractTS<E> solver = created.get(r);
+				Solution<E> sol = solver.solve();
+				seconds[r] = (System.nanoTime() - startTime) / 1e9;
+				iterations[r] = solver.getExecutedIterations();
+				return sol;
+			}));
+		}
+
+		List<PortfolioTS.RunStats> workerStats = new ArrayList<>();
+		try {
+			for (int w = 0; w < workers; w++) {
+				Solution<E> sol = futures.get(w).get();
+				workerStats.add(new PortfolioTS.RunStats(w, seeds[w], sol.cost, iterations[w], seconds[w]));
+			}
+		} catch (ExecutionException e) {
+			throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+		} finally {
+			executor.shutdownNow();
+		}
+		stats = workerStats;
+
+		return globalBest.get();
+	}
+
+	/**
+	 * Offers a solution to the global best, retrying the compare-and-set
+	 * until it succeeds or another worker publishes a solution at least as
+	 * good.
+	 */
+	private boolean offerBest(Solution<E> sol) {
+		while (true) {
+			Solution<E> best = globalBest.get();
+			if (best != null && best.cost <= sol.cost)
+				return false;
+			if (globalBest.compareAndSet(best, sol))
+				return true;
+		}
+	}
+
+	/**
+	 * Offers a solution to the elite pool, where it replaces the worst
+	 * solution if it is better and not already in the pool. A lost
+	 * compare-and-set is retried a bounded number of times, after which the
+	 * offer is dropped.
+	 */
+	private void offerElite(Solution<E> sol) {
+		for (int attempt = 0; attempt < elite.length(); attempt++) {
+			int worst = -1;
+			Solution<E> worstSol = null;
+			for (int k = 0; k < elite.length(); k++) {
+				Solution<E> other = elite.get(k);
+				if (other == null) {
+					if (worst < 0 || worstSol != null) {
+						worst = k;
+						worstSol = null;
+					}
+					continue;
+				}
+				if (other.cost.equals(sol.cost) && other.size() == sol.size() && other.containsAll(sol))
+					return;
+				if (worst < 0 || (worstSol != null && other.cost > worstSol.cost)) {
+					worst = k;
+					worstSol = other;
+				}
+			}
+			if (worstSol != null && worstSol.cost <= sol.cost)
+				return;
+			if (elite.compareAndSet(worst, worstSol, sol))
+				return;
+		}
+	}
+
+	/**
+	 * Stops every worker after the target cost is reached, through their stop
+	 * condition, which also stops the workers that have not started yet.
+	 */
+	private void targetReached() {
+		timeToTarget.compareAndSet(-1, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * The channel of a single worker, holding the random number generator
+	 * used to choose its restarts.
+	 */
+	private class Channel implements Cooperation<E> {
+
+		private final SplittableRandom rng;
+
+		Channel(SplittableRandom rng) {
+			this.rng = rng;
+		}
+
+		@Override
+		public void publish(Solution<E> incumbent) {
+			if (offerBest(incumbent) && incumbent.cost <= targetCost)
+				targetReached();
+			offerElite(incumbent);
+		}
+
+		@Override
+		public Solution<E> restart(int stagnation) {
+			if (stagnation < stagnationLimit)
+				return null;
+			int start = rng.nextInt(elite.length());
+			for (int k = 0; k < elite.length(); k++) {
+				Solution<E> sol = elite.get((start + k) % elite.length());
+				if (sol != null) {
+					restarts.incrementAndGet();
+					return sol;
+				}
+			}
+			return null;
+		}
+
+	}
+
+}
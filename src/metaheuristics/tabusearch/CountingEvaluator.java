@@ -0,0 +1,89 @@
+package metaheuristics.tabusearch;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import problems.Evaluator;
+import solutions.Solution;
+
+/**
+ * An objective function that counts the costs evaluated by another one, to
+ * which it forwards every call, batch methods included. A batch call counts
+ * one evaluation per cost it computes. The counters are striped, since the
+ * exchange neighborhood may be evaluated by the workers of a pool (see
+ * {@link problems.qbf.solvers.TS_QBF#setExchangePool}), and are only updated
+ * once per call, so the batch evaluations of the inner loops cost nothing
+ * more.
+ * 
+ * @param <E>
+ *            Generic type of the element which composes the solution.
+ */
+final class CountingEvaluator<E> implements Evaluator<E> {
+
+	private final Evaluator<E> evaluator;
+
+	final LongAdder insertions = new LongAdder(), removals = new LongAdder(), exchanges = new LongAdder(),
+			evaluations = new LongAdder();
+
+	CountingEvaluator(Evaluator<E> evaluator) {
+		this.evaluator = evaluator;
+	}
+
+	@Override
+	public Integer getDomainSize() {
+		return evaluator.getDomainSize();
+	}
+
+	@Override
+	public Double evaluate(Solution<E> sol) {
+		evaluations.increment();
+		return evaluator.evaluate(sol);
+	}
+
+	@Override
+	public Double evaluateInsertionCost(E elem, Solution<E> sol) {
+		insertions.increment();
+		return evaluator.evaluateInsertionCost(elem, sol);
+	}
+
+	@Override
+	public Double evaluateRemovalCost(E elem, Solution<E> sol) {
+		removals.increment();
+		return evaluator.evaluateRemovalCost(elem, sol);
+	}
+
+	@Override
+	public Double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol) {
+		exchanges.increment();
+		return evaluator.evaluateExchangeCost(elemIn, elemOut, sol);
+	}
+
+	@Override
+	public void evaluateInsertionCosts(List<E> candidates, Solution<E> sol, double[] deltas) {
+		insertions.add(candidates.size());
+		evaluator.evaluateInsertionCosts(candidates, sol, deltas);
+	}
+
+	@Override
+	public void evaluateRemovalCosts(Solution<E> sol, double[] deltas) {
+		removals.add(sol.size());
+		evaluator.evaluateRemovalCosts(sol, deltas);
+	}
+
+	@Override
+	public void evaluateExchangeCosts(List<E> candidatesIn, int from, int to, Solution<E> sol, double[] deltas) {
+		exchanges.add((long) (to - from) * sol.size());
+		evaluator.evaluateExchangeCosts(candidatesIn, from, to, sol, deltas);
+	}
+
+	@Override
+	public void commitInsertion(E elem, Solution<E> sol) {
+		evaluator.commitInsertion(elem, sol);
+	}
+
+	@Override
+	public void commitRemoval(E elem, Solution<E> sol) {
+		evaluator.commitRemoval(elem, sol);
+	}
+
+}
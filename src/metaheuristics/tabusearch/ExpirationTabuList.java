@@ -0,0 +1,97 @@
+package metaheuristics.tabusearch;
+
+/**
+ * A Tabu List for candidates that are the integers of a domain
+ * {0, ..., n-1}. Instead of a queue of the last moved elements, it keeps for
+ * each element the last iteration in which it is tabu, so testing whether an
+ * element is tabu takes O(1) time regardless of the tenure.
+ * 
+ * An element added in iteration t is tabu in iterations t+1, ..., t+tenure,
+ * the same behavior of a queue of 2*tenure elements that receives the
+ * element leaving and the element entering the solution at each iteration.
+ */
+public class ExpirationTabuList implements TabuList<Integer> {
+
+	/**
+	 * the tabu tenure.
+	 */
+	private final int tenure;
+
+	/**
+	 * the last iteration in which each element is tabu.
+	 */
+	private final int[] expiration;
+
+	/**
+	 * the current iteration.
+	 */
+	private int iteration = 1;
+
+	/**
+	 * Constructor for the ExpirationTabuList class.
+	 * 
+	 * @param domainSize
+	 *            the number of candidate elements.
+	 * @param tenure
+	 *            the number of iterations an element remains tabu.
+	 */
+	public ExpirationTabuList(int domainSize, int tenure) {
+		this.tenure = tenure;
+		this.expiration = new int[domainSize];
+	}
+
+	@Override
+	public boolean contains(Integer elem) {
+		return contains(elem.intValue());
+	}
+
+	/**
+	 * Tests whether an element is tabu in the current iteration, without
+	 * boxing it.
+	 * 
+	 * @param elem
+	 *            the element being tested.
+	 * @return true if the element is tabu.
+	 */
+	public boolean contains(int elem) {
+		return expiration[elem] >= iteration;
+	}
+
+	@Override
+	public void add(Integer elem) {
+		add(elem.intValue());
+	}
+
+	/**
+	 * Makes an element tabu for the next tenure iterations, without boxing
+	 * it.
+	 * 
+	 * @param elem
+	 *            the element moved in the current iteration.
+	 */
+	public void add(int elem) {
+		expiration[elem] = iteration + tenure;
+	}
+
+	@Override
+	public void nextIteration() {
+		iteration++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * It scans the whole domain, so it is meant for monitoring, not for the
+	 * inner loops of the search.
+	 */
+	@Override
+	public int size() {
+		int size = 0;
+		for (int e = 0; e < expiration.length; e++) {
+			if (expiration[e] >= iteration)
+				size++;
+		}
+		return size;
+	}
+
+}
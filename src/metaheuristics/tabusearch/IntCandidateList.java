@@ -0,0 +1,111 @@
+package metaheuristics.tabusearch;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A Candidate List of int elements, with the semantics of the ArrayList it
+ * replaces in {@link AbstractIntTS}: elements are appended at the end, and a
+ * removal takes out the first occurrence of an element and shifts the
+ * following ones, so the candidates are scanned in the same order as in the
+ * list of boxed elements of {@link AbstractTS}.
+ */
+public class IntCandidateList {
+
+	/**
+	 * the candidates, in positions [0, size).
+	 */
+	private int[] elements;
+
+	private int size = 0;
+
+	/**
+	 * Creates an empty list.
+	 *
+	 * @param capacity
+	 *            the initial capacity, usually the size of the domain.
+	 */
+	public IntCandidateList(int capacity) {
+		elements = new int[Math.max(capacity, 1)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int get(int index) {
+		if (index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		return elements[index];
+	}
+
+	/**
+	 * Gives the array holding the candidates in positions [0, {@link #size()}),
+	 * for the batch evaluations. The array is owned by the list and must not
+	 * be modified.
+	 *
+	 * @return the array of candidates.
+	 */
+	public int[] elements() {
+		return elements;
+	}
+
+	/**
+	 * Appends a candidate.
+	 *
+	 * @param elem
+	 *            the candidate.
+	 */
+	public void add(int elem) {
+		if (size == elements.length)
+			elements = Arrays.copyOf(elements, 2 * size);
+		elements[size++] = elem;
+	}
+
+	/**
+	 * Removes the first occurrence of a candidate, shifting the ones after it.
+	 *
+	 * @param elem
+	 *            the candidate.
+	 * @return true if the candidate was in the list.
+	 */
+	public boolean removeElement(int elem) {
+		for (int index = 0; index < size; index++) {
+			if (elements[index] == elem) {
+				System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes every candidate satisfying a condition, in a single pass that
+	 * keeps the order of the others.
+	 *
+	 * @param filter
+	 *            the condition of the candidates removed.
+	 * @return true if some candidate was removed.
+	 */
+	public boolean removeIf(IntPredicate filter) {
+		int kept = 0;
+		for (int index = 0; index < size; index++) {
+			int elem = elements[index];
+			if (!filter.test(elem))
+				elements[kept++] = elem;
+		}
+		boolean removed = kept < size;
+		size = kept;
+		return removed;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+}
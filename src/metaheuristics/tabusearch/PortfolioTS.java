@@ -0,0 +1,211 @@
+package metaheuristics.tabusearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import solutions.Solution;
+
+/**
+ * A portfolio of independent Tabu Search runs on the same problem, executed
+ * in parallel. Each run gets its own solver, built by a factory, and its own
+ * random number generator, seeded from a master seed, so the outcome of every
+ * run does not depend on the number of threads or on the other runs. The best
+ * incumbent among all runs is returned.
+ *
+ * @param <E>
+ *            Generic type of the candidate to enter the solution.
+ */
+public class PortfolioTS<E> {
+
+	/**
+	 * Builds the solver of each run. Since solvers keep the state of the
+	 * search, each run must receive a new solver.
+	 */
+	public interface SolverFactory<E> {
+
+		/**
+		 * Creates the solver of a run.
+		 *
+		 * @param run
+		 *            the index of the run.
+		 * @return a new solver.
+		 * @throws Exception
+		 *             if the solver cannot be built.
+		 */
+		public abstract AbstractTS<E> create(int run) throws Exception;
+
+	}
+
+	/**
+	 * The statistics of a single run of the portfolio.
+	 */
+	public static class RunStats {
+
+		public final int run;
+		public final long seed;
+		public final Double bestCost;
+		public final Integer iterations;
+		public final double seconds;
+
+		public RunStats(int run, long seed, Double bestCost, Integer iterations, double seconds) {
+			this.run = run;
+			this.seed = seed;
+			this.bestCost = bestCost;
+			this.iterations = iterations;
+			this.seconds = seconds;
+		}
+
+		@Override
+		public String toString() {
+			return "Run " + run + ": seed=[" + seed + "], cost=[" + bestCost + "], iterations=[" + iterations
+					+ "], time=[" + seconds + "s]";
+		}
+
+	}
+
+	/**
+	 * the factory of the solvers of each run.
+	 */
+	private final SolverFactory<E> factory;
+
+	/**
+	 * the number of runs.
+	 */
+	private final int runs;
+
+	/**
+	 * the seed from which the seed of each run is derived.
+	 */
+	private final long masterSeed;
+
+	/**
+	 * the number of runs executed at the same time.
+	 */
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * a cost that stops every run as soon as one of them reaches it.
+	 */
+	private Double targetCost = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * flag that indicates that some run reached the target cost.
+	 */
+	private volatile boolean targetReached;
+
+	/**
+	 * the statistics of the last call to {@link #solve()}, by run.
+	 */
+	private List<RunStats> stats = new ArrayList<>();
+
+	/**
+	 * Constructor for the PortfolioTS class.
+	 *
+	 * @param factory
+	 *            the factory of the solvers of each run.
+	 * @param runs
+	 *            the number of independent runs.
+	 * @param masterSeed
+	 *            the seed from which the seed of each run is derived.
+	 */
+	public PortfolioTS(SolverFactory<E> factory, int runs, long masterSeed) {
+		this.factory = factory;
+		this.runs = runs;
+		this.masterSeed = masterSeed;
+	}
+
+	/**
+	 * Sets the number of runs executed at the same time.
+	 *
+	 * @param threads
+	 *            the number of threads.
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets a cost that stops every run as soon as one of them reaches it.
+	 *
+	 * @param targetCost
+	 *            the target cost.
+	 */
+	public void setTargetCost(Double targetCost) {
+		this.targetCost = targetCost;
+	}
+
+	/**
+	 * Gives the statistics of each run of the last call to {@link #solve()}.
+	 *
+	 * @return the statistics, ordered by run.
+	 */
+	public List<RunStats> getStats() {
+		return stats;
+	}
+
+	/**
+	 * Executes every run of the portfolio and waits for them to finish.
+	 *
+	 * @return the best solution among all runs.
+	 * @throws Exception
+	 *             if a solver cannot be built or a run fails.
+	 */
+	public Solution<E> solve() throws Exception {
+
+		SplittableRandom master = new SplittableRandom(masterSeed);
+		long[] seeds = new long[runs];
+		for (int run = 0; run < runs; run++) {
+			seeds[run] = master.nextLong();
+		}
+
+		targetReached = false;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, runs)));
+		List<Future<Solution<E>>> futures = new ArrayList<>();
+		double[] seconds = new double[runs];
+		Integer[] iterations = new Integer[runs];
+
+		for (int run = 0; run < runs; run++) {
+			final int r = run;
+			futures.add(executor.submit(() -> {
+				AbstractTS<E> solver = factory.create(r);
+				solver.verbose = false;
+				solver.setRng(new SplittableRandom(seeds[r]));
+				solver.setTargetCost(targetCost);
+				solver.setStopCondition(() -> targetReached);
+
+				long startTime = System.nanoTime();
+				Solution<E> sol = solver.solve();
+				seconds[r] = (System.nanoTime() - startTime) / 1e9;
+				iterations[r] = solver.getExecutedIterations();
+
+				if (sol.cost <= targetCost)
+					targetReached = true;
+				return sol;
+			}));
+		}
+
+		Solution<E> bestSol = null;
+		List<RunStats> runStats = new ArrayList<>();
+		try {
+			for (int run = 0; run < runs; run++) {
+				Solution<E> sol = futures.get(run).get();
+				runStats.add(new RunStats(run, seeds[run], sol.cost, iterations[run], seconds[run]));
+				if (bestSol == null || sol.cost < bestSol.cost)
+					bestSol = sol;
+			}
+		} catch (ExecutionException e) {
+			throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+		} finally {
+			executor.shutdownNow();
+		}
+		stats = runStats;
+
+		return bestSol;
+	}
+
+}
@@ -0,0 +1,244 @@
+package metaheuristics.tabusearch;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import problems.Evaluator;
+
+/**
+ * The live metrics of a Tabu Search, registered as an MBean of the platform
+ * server while {@link AbstractTS#solve()} runs (see
+ * {@link AbstractTS#setMetrics(SolverMetrics)}), under the name
+ * {@code metaheuristics.tabusearch:type=Solver,name=<name>}.
+ *
+ * The search updates the metrics from its own thread, with no
+ * synchronization: every {@link #STRIDE} iterations it checks the clock, and
+ * once every {@link #PUBLISH_INTERVAL_MILLIS} milliseconds it publishes the
+ * iterations, the costs, the time of the last improvement and the size of the
+ * Tabu List in an immutable snapshot read by the JMX threads. The evaluations
+ * are counted by a wrapper of the objective function (see
+ * {@link CountingEvaluator}), once per batch call, and are read live. The
+ * metrics read no random numbers and take no decision, so they do not change
+ * the search.
+ *
+ * A metrics object serves one search at a time, and its name should be
+ * unique among the searches running in the JVM: a search whose MBean cannot
+ * be registered runs unmonitored.
+ */
+public class SolverMetrics implements SolverMetricsMBean {
+
+	/**
+	 * the domain of the names of the MBeans.
+	 */
+	public static final String DOMAIN = "metaheuristics.tabusearch";
+
+	/**
+	 * the interval between two publications of the state of the search.
+	 */
+	public static final long PUBLISH_INTERVAL_MILLIS = 200;
+
+	/**
+	 * the number of iterations between two readings of the clock.
+	 */
+	private static final int STRIDE = 16;
+
+	/**
+	 * The state of the search at a publication.
+	 */
+	private static final class Snapshot {
+
+		final long iterations, nanos, improvementNanos;
+		final double currentCost, incumbentCost;
+		final int tabuListSize;
+
+		Snapshot(long iterations, long nanos, double currentCost, double incumbentCost, long improvementNanos,
+				int tabuListSize) {
+			this.iterations = iterations;
+			this.nanos = nanos;
+			this.currentCost = currentCost;
+			this.incumbentCost = incumbentCost;
+			this.improvementNanos = improvementNanos;
+			this.tabuListSize = tabuListSize;
+		}
+
+	}
+
+	private final ObjectName objectName;
+
+	/**
+	 * whether the MBean of the current search is registered, only used by the
+	 * thread of the search.
+	 */
+	private boolean registered;
+
+	/**
+	 * the counters of the objective function of the current search.
+	 */
+	private volatile CountingEvaluator<?> counter;
+
+	/**
+	 * the start of the current search and the time of the last publication,
+	 * only used by the thread of the search.
+	 */
+	private long startNanos, publishedNanos;
+
+	/**
+	 * the state of the search at the last publication.
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Constructor for the SolverMetrics class.
+	 * 
+	 * @param name
+	 *            the name of the search, quoted in the name of the MBean.
+	 */
+	public SolverMetrics(String name) {
+		try {
+			this.objectName = new ObjectName(DOMAIN + ":type=Solver,name=" + ObjectName.quote(name));
+		} catch (MalformedObjectNameException e) {
+			throw new IllegalArgumentException("Invalid solver name: " + name, e);
+		}
+	}
+
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+
+	/**
+	 * Wraps the objective function of a search, so its evaluations are
+	 * counted.
+	 * 
+	 * @param objFunction
+	 *            the objective function of the search.
+	 * @return the objective function the search uses while it is measured.
+	 */
+	<E> Evaluator<E> count(Evaluator<E> objFunction) {
+		CountingEvaluator<E> counting = new CountingEvaluator<E>(objFunction);
+		counter = counting;
+		return counting;
+	}
+
+	/**
+	 * Starts measuring a search and registers the MBean. A registration that
+	 * fails, for instance because an MBean of the same name is registered, is
+	 * logged and the search goes on unmonitored.
+	 */
+	void register() {
+		startNanos = System.nanoTime();
+		publishedNanos = startNanos;
+		snapshot = new Snapshot(0, startNanos, Double.NaN, Double.NaN, startNanos, 0);
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			registered = true;
+		} catch (JMException e) {
+			System.out.println("Error registering the metrics " + objectName + ": " + e);
+		}
+	}
+
+	/**
+	 * Unregisters the MBean at the end of a search, if it was registered.
+	 */
+	void unregister() {
+		if (!registered)
+			return;
+		registered = false;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			// already unregistered
+		}
+	}
+
+	/**
+	 * Records the end of an iteration, publishing the state of the search if
+	 * the last publication is old enough.
+	 * 
+	 * @param iterations
+	 *            the number of iterations completed.
+	 * @param currentCost
+	 *            the cost of the current solution.
+	 * @param incumbentCost
+	 *            the cost of the incumbent solution.
+	 * @param timeToBest
+	 *            the nanoseconds from the start of the search to the last
+	 *            improvement of the incumbent.
+	 * @param TL
+	 *            the Tabu List of the search.
+	 */
+	void iteration(int iterations, double currentCost, double incumbentCost, long timeToBest, TabuList<?> TL) {
+		if ((iterations & (STRIDE - 1)) != 0)
+			return;
+		if (System.nanoTime() - publishedNanos >= PUBLISH_INTERVAL_MILLIS * 1000000)
+			publish(iterations, currentCost, incumbentCost, timeToBest, TL);
+	}
+
+	/**
+	 * Publishes the state of the search, with the arguments of
+	 * {@link #iteration}.
+	 */
+	void publish(int iterations, double currentCost, double incumbentCost, long timeToBest, TabuList<?> TL) {
+		publishedNanos = System.nanoTime();
+		snapshot = new Snapshot(iterations, publishedNanos, currentCost, incumbentCost, startNanos + timeToBest,
+				TL.size());
+	}
+
+	@Override
+	public long getIterations() {
+		return snapshot.iterations;
+	}
+
+	@Override
+	public double getIterationsPerSecond() {
+		Snapshot s = snapshot;
+		return (s.nanos > startNanos) ? s.iterations / ((s.nanos - startNanos) / 1e9) : 0.0;
+	}
+
+	@Override
+	public long getInsertionEvaluations() {
+		CountingEvaluator<?> c = counter;
+		return (c != null) ? c.insertions.sum() : 0;
+	}
+
+	@Override
+	public long getRemovalEvaluations() {
+		CountingEvaluator<?> c = counter;
+		return (c != null) ? c.removals.sum() : 0;
+	}
+
+	@Override
+	public long getExchangeEvaluations() {
+		CountingEvaluator<?> c = counter;
+		return (c != null) ? c.exchanges.sum() : 0;
+	}
+
+	@Override
+	public long getFullEvaluations() {
+		CountingEvaluator<?> c = counter;
+		return (c != null) ? c.evaluations.sum() : 0;
+	}
+
+	@Override
+	public double getCurrentCost() {
+		return snapshot.currentCost;
+	}
+
+	@Override
+	public double getIncumbentCost() {
+		return snapshot.incumbentCost;
+	}
+
+	@Override
+	public double getSecondsSinceImprovement() {
+		return (System.nanoTime() - snapshot.improvementNanos) / 1e9;
+	}
+
+	@Override
+	public int getTabuListSize() {
+		return snapshot.tabuListSize;
+	}
+
+}
@@ -0,0 +1,63 @@
+package metaheuristics.tabusearch;
+
+/**
+ * The management interface of {@link SolverMetrics}: the progress of a
+ * running Tabu Search, as seen from a JMX console. The values of the search
+ * are the ones of its last publication, at most
+ * {@link SolverMetrics#PUBLISH_INTERVAL_MILLIS} milliseconds old.
+ */
+public interface SolverMetricsMBean {
+
+	/**
+	 * @return the number of iterations completed.
+	 */
+	public abstract long getIterations();
+
+	/**
+	 * @return the iterations completed per second of search, the
+	 *         constructive heuristic included.
+	 */
+	public abstract double getIterationsPerSecond();
+
+	/**
+	 * @return the number of insertion costs evaluated.
+	 */
+	public abstract long getInsertionEvaluations();
+
+	/**
+	 * @return the number of removal costs evaluated.
+	 */
+	public abstract long getRemovalEvaluations();
+
+	/**
+	 * @return the number of exchange costs evaluated.
+	 */
+	public abstract long getExchangeEvaluations();
+
+	/**
+	 * @return the number of full evaluations of a solution.
+	 */
+	public abstract long getFullEvaluations();
+
+	/**
+	 * @return the cost of the current solution, as minimized by the solver.
+	 */
+	public abstract double getCurrentCost();
+
+	/**
+	 * @return the cost of the incumbent solution, as minimized by the solver.
+	 */
+	public abstract double getIncumbentCost();
+
+	/**
+	 * @return the seconds elapsed since the last improvement of the
+	 *         incumbent.
+	 */
+	public abstract double getSecondsSinceImprovement();
+
+	/**
+	 * @return the number of elements that are tabu.
+	 */
+	public abstract int getTabuListSize();
+
+}
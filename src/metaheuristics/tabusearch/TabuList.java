@@ -0,0 +1,42 @@
+package metaheuristics.tabusearch;
+
+/**
+ * The tabu memory of a Tabu Search. An element added to the list stays tabu
+ * during the next {@code tenure} iterations of the search, where the end of
+ * each iteration is signaled by {@link #nextIteration()}.
+ * 
+ * @param <E>
+ *            Generic type of the candidate to enter the solution.
+ */
+public interface TabuList<E> {
+
+	/**
+	 * Tests whether an element is tabu in the current iteration.
+	 * 
+	 * @param elem
+	 *            the element being tested.
+	 * @return true if the element is tabu.
+	 */
+	public abstract boolean contains(E elem);
+
+	/**
+	 * Makes an element tabu for the next tenure iterations.
+	 * 
+	 * @param elem
+	 *            the element moved in the current iteration.
+	 */
+	public abstract void add(E elem);
+
+	/**
+	 * Signals the end of the current iteration.
+	 */
+	public abstract void nextIteration();
+
+	/**
+	 * Gives the number of elements that are tabu in the current iteration.
+	 * 
+	 * @return the number of tabu elements.
+	 */
+	public abstract int size();
+
+}
@@ -0,0 +1,121 @@
+package metaheuristics.tabusearch;
+
+/**
+ * A termination criterion of a Tabu Search, checked by the main loop of
+ * {@link AbstractTS#solve()} before every iteration, so it must be cheap: the
+ * criteria below read at most a clock, and the CPU time only every few
+ * iterations. Criteria are combined by {@link #anyOf} and {@link #allOf}.
+ *
+ * A criterion keeps the state of the search it is checking, such as the time
+ * it started, so an instance serves one search at a time.
+ */
+public interface Termination {
+
+	/**
+	 * Signals the start of a search, after its first solution is built.
+	 */
+	public default void start() {
+	}
+
+	/**
+	 * Tests whether the search must stop.
+	 *
+	 * @param iterations
+	 *            the number of iterations executed so far.
+	 * @param incumbentCost
+	 *            the cost of the incumbent solution.
+	 * @param stagnation
+	 *            the number of iterations since the incumbent last improved.
+	 * @return true if the search must stop before the next iteration.
+	 */
+	public abstract boolean reached(int iterations, double incumbentCost, int stagnation);
+
+	/**
+	 * Describes the criterion, or in a combination the criteria that were
+	 * reached, such as "iterations" or "time limit".
+	 *
+	 * @return the reason of a stop caused by this criterion.
+	 */
+	public abstract String reason();
+
+	/**
+	 * Stops after a number of iterations.
+	 *
+	 * @param limit
+	 *            the number of iterations.
+	 * @return the criterion.
+	 */
+	public static Termination iterations(int limit) {
+		return new Terminations.Iterations(limit);
+	}
+
+	/**
+	 * Stops once a wall-clock time has elapsed since the start of the search,
+	 * as measured by {@link System#nanoTime()}.
+	 *
+	 * @param seconds
+	 *            the time limit, in seconds.
+	 * @return the criterion.
+	 */
+	public static Termination seconds(double seconds) {
+		return new Terminations.Deadline((long) (seconds * 1e9));
+	}
+
+	/**
+	 * Stops once the thread running the search has used an amount of CPU time
+	 * since its start. Where the JVM does not measure the CPU time of threads,
+	 * the criterion is never reached.
+	 *
+	 * @param seconds
+	 *            the CPU time limit, in seconds.
+	 * @return the criterion.
+	 */
+	public static Termination cpuSeconds(double seconds) {
+		return new Terminations.CpuTime((long) (seconds * 1e9));
+	}
+
+	/**
+	 * Stops as soon as the incumbent reaches a cost.
+	 *
+	 * @param cost
+	 *            the target cost of the minimization.
+	 * @return the criterion.
+	 */
+	public static Termination target(double cost) {
+		return new Terminations.Target(cost);
+	}
+
+	/**
+	 * Stops after a number of iterations without improving the incumbent.
+	 *
+	 * @param iterations
+	 *            the number of iterations without improvement.
+	 * @return the criterion.
+	 */
+	public static Termination stagnation(int iterations) {
+		return new Terminations.Stagnation(iterations);
+	}
+
+	/**
+	 * Stops as soon as one of the criteria is reached.
+	 *
+	 * @param criteria
+	 *            the criteria combined.
+	 * @return the criterion.
+	 */
+	public static Termination anyOf(Termination... criteria) {
+		return new Terminations.AnyOf(criteria);
+	}
+
+	/**
+	 * Stops once all of the criteria are reached at the same time.
+	 *
+	 * @param criteria
+	 *            the criteria combined.
+	 * @return the criterion.
+	 */
+	public static Termination allOf(Termination... criteria) {
+		return new Terminations.AllOf(criteria);
+	}
+
+}
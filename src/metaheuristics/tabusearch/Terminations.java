@@ -0,0 +1,222 @@
+package metaheuristics.tabusearch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The termination criteria made by the factories of {@link Termination}.
+ */
+final class Terminations {
+
+	private Terminations() {
+	}
+
+	static final class Iterations implements Termination {
+
+		private final int limit;
+
+		Iterations(int limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean reached(int iterations, double incumbentCost, int stagnation) {
+			return iterations >= limit;
+		}
+
+		@Override
+		public String reason() {
+			return "iterations";
+		}
+
+	}
+
+	static final class Deadline implements Termination {
+
+		private final long nanos;
+
+		/**
+		 * the value of System.nanoTime() at which the search stops.
+		 */
+		private long deadline;
+
+		Deadline(long nanos) {
+			this.nanos = nanos;
+		}
+
+		@Override
+		public void start() {
+			deadline = System.nanoTime() + nanos;
+		}
+
+		@Override
+		public boolean reached(int iterations, double incumbentCost, int stagnation) {
+			return System.nanoTime() - deadline >= 0;
+		}
+
+		@Override
+		public String reason() {
+			return "time limit";
+		}
+
+	}
+
+	static final class CpuTime implements Termination {
+
+		/**
+		 * the CPU time of a thread is read once every this many iterations,
+		 * since reading it costs a system call.
+		 */
+		private static final int STRIDE = 16;
+
+		private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		private final long nanos;
+
+		/**
+		 * the CPU time of the thread at which the search stops, or
+		 * Long.MAX_VALUE if it cannot be measured.
+		 */
+		private long deadline;
+
+		CpuTime(long nanos) {
+			this.nanos = nanos;
+		}
+
+		@Override
+		public void start() {
+			long now = threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+			deadline = (now < 0) ? Long.MAX_VALUE : now + nanos;
+		}
+
+		@Override
+		public boolean reached(int iterations, double incumbentCost, int stagnation) {
+			if (iterations % STRIDE != 0 || deadline == Long.MAX_VALUE)
+				return false;
+			return threads.getCurrentThreadCpuTime() >= deadline;
+		}
+
+		@Override
+		public String reason() {
+			return "cpu time limit";
+		}
+
+	}
+
+	static final class Target implements Termination {
+
+		private final double cost;
+
+		Target(double cost) {
+			this.cost = cost;
+		}
+
+		@Override
+		public boolean reached(int iterations, double incumbentCost, int stagnation) {
+			return incumbentCost <= cost;
+		}
+
+		@Override
+		public String reason() {
+			return "target";
+		}
+
+	}
+
+	static final class Stagnation implements Termination {
+
+		private final int limit;
+
+		Stagnation(int limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean reached(int iterations, double incumbentCost, int stagnation) {
+			return stagnation >= limit;
+		}
+
+		@Override
+		public String reason() {
+			return "stagnation";
+		}
+
+	}
+
+	static final class AnyOf implements Termination {
+
+		private final Termination[] criteria;
+
+		/**
+		 * the criterion that was reached, if any.
+		 */
+		private Termination reached;
+
+		AnyOf(Termination[] criteria) {
+			this.criteria = criteria.clone();
+		}
+
+		@Override
+		public void start() {
+			reached = null;
+			for (Termination criterion : criteria) {
+				criterion.start();
+			}
+		}
+
+		@Override
+		public boolean reached(int iterations, double incumbentCost, int stagnation) {
+			for (Termination criterion : criteria) {
+				if (criterion.reached(iterations, incumbentCost, stagnation)) {
+					reached = criterion;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public String reason() {
+			return (reached != null) ? reached.reason() : "none";
+		}
+
+	}
+
+	static final class AllOf implements Termination {
+
+		private final Termination[] criteria;
+
+		AllOf(Termination[] criteria) {
+			this.criteria = criteria.clone();
+		}
+
+		@Override
+		public void start() {
+			for (Termination criterion : criteria) {
+				criterion.start();
+			}
+		}
+
+		@Override
+		public boolean reached(int iterations, double incumbentCost, int stagnation) {
+			for (Termination criterion : criteria) {
+				if (!criterion.reached(iterations, incumbentCost, stagnation))
+					return false;
+			}
+			return true;
+		}
+
+		@Override
+		public String reason() {
+			StringBuilder reason = new StringBuilder();
+			for (Termination criterion : criteria) {
+				if (reason.length() > 0)
+					reason.append(" and ");
+				reason.append(criterion.reason());
+			}
+			return reason.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,95 @@
+package models;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file of run results (see {@link RunResult}), in JSON Lines if its name
+ * ends in ".jsonl" and in CSV otherwise. Results are appended to the file, so
+ * the runs of several executions accumulate in it, and each one is flushed as
+ * soon as it is added, so the results of a long grid survive an interrupted
+ * execution. Runs finishing at the same time may add their results
+ * concurrently.
+ */
+public class ResultsStore implements AutoCloseable {
+
+	private final String filename;
+
+	private final boolean json;
+
+	private final FileWriter fileWriter;
+
+	/**
+	 * Opens a results file, creating it if it does not exist.
+	 *
+	 * @param filename
+	 *            Name of the results file.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public ResultsStore(String filename) throws IOException {
+		this.filename = filename;
+		this.json = isJson(filename);
+		File file = new File(filename);
+		boolean empty = !file.exists() || file.length() == 0;
+		this.fileWriter = new FileWriter(file, true);
+		if (empty && !json) {
+			fileWriter.write(RunResult.HEADER + "\n");
+			fileWriter.flush();
+		}
+	}
+
+	private static boolean isJson(String filename) {
+		return filename.endsWith(".jsonl");
+	}
+
+	/**
+	 * Appends a result to the file.
+	 *
+	 * @param result
+	 *            the result of a run.
+	 */
+	public synchronized void add(RunResult result) {
+		try {
+			fileWriter.write((json ? result.toJson() : result.toCsv()) + "\n");
+			fileWriter.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.out.println("Error writing in file: " + filename);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		fileWriter.close();
+	}
+
+	/**
+	 * Reads every result of a file.
+	 *
+	 * @param filename
+	 *            Name of the results file.
+	 * @return the results, in the order of the file.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static List<RunResult> read(String filename) throws IOException {
+		boolean json = isJson(filename);
+		List<RunResult> results = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank() || line.equals(RunResult.HEADER))
+					continue;
+				results.add(json ? RunResult.parseJson(line) : RunResult.parseCsv(line));
+			}
+		}
+		return results;
+	}
+
+}
@@ -0,0 +1,111 @@
+package models;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes results files (see {@link ResultsStore}): for each
+ * configuration, that is each instance, experiment and tenure, it gives the
+ * number of runs across seeds, the best, mean and median of their best costs,
+ * and the mean and median of their iterations per second and times to the
+ * best solution, in CSV. The runs that took no time have no speed and are
+ * left out of the iterations per second, which are NaN if no run took any
+ * time.
+ *
+ * Usage: ResultsSummary [results files...], results/runs.csv by default.
+ */
+public class ResultsSummary {
+
+	public static final String HEADER = "instance,experiment,tenure,runs,best_cost,mean_cost,median_cost,"
+			+ "mean_iterations_per_second,median_iterations_per_second,mean_time_to_best,median_time_to_best";
+
+	public static void main(String[] args) throws IOException {
+
+		String[] filenames = (args.length > 0) ? args : new String[] { "results/runs.csv" };
+
+		List<RunResult> results = new ArrayList<>();
+		for (String filename : filenames) {
+			results.addAll(ResultsStore.read(filename));
+		}
+		write(results, System.out);
+
+	}
+
+	/**
+	 * Writes the summary of the results of every configuration, in the order
+	 * in which the configurations first appear.
+	 *
+	 * @param results
+	 *            the results of the runs.
+	 * @param out
+	 *            the stream receiving the summary.
+	 */
+	public static void write(List<RunResult> results, PrintStream out) {
+
+		Map<List<Object>, List<RunResult>> configurations = new LinkedHashMap<>();
+		for (RunResult result : results) {
+			configurations.computeIfAbsent(result.getConfiguration(), key -> new ArrayList<>()).add(result);
+		}
+
+		out.println(HEADER);
+		for (Map.Entry<List<Object>, List<RunResult>> entry : configurations.entrySet()) {
+			List<RunResult> runs = entry.getValue();
+			double[] costs = new double[runs.size()];
+			double[] speeds = new double[runs.size()];
+			double[] timesToBest = new double[runs.size()];
+			int timed = 0;
+			for (int k = 0; k < runs.size(); k++) {
+				costs[k] = runs.get(k).bestCost;
+				timesToBest[k] = runs.get(k).timeToBest;
+				double speed = runs.get(k).getIterationsPerSecond();
+				if (!Double.isNaN(speed))
+					speeds[timed++] = speed;
+			}
+			speeds = Arrays.copyOf(speeds, timed);
+			out.println(RunResult.toCsv(entry.getKey().toArray()) + "," + runs.size() + "," + min(costs) + "," + mean(costs) + ","
+					+ median(costs) + "," + mean(speeds) + "," + median(speeds) + "," + mean(timesToBest) + ","
+					+ median(timesToBest));
+		}
+
+	}
+
+	/**
+	 * Gives the least of some values, the best cost of a minimization.
+	 */
+	static double min(double[] values) {
+		double min = Double.POSITIVE_INFINITY;
+		for (double value : values) {
+			min = Math.min(min, value);
+		}
+		return min;
+	}
+
+	/**
+	 * Gives the mean of some values, or NaN if there are none.
+	 */
+	static double mean(double[] values) {
+		double sum = 0.0;
+		for (double value : values) {
+			sum += value;
+		}
+		return sum / values.length;
+	}
+
+	/**
+	 * Gives the median of some values, or NaN if there are none.
+	 */
+	static double median(double[] values) {
+		if (values.length == 0)
+			return Double.NaN;
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int middle = sorted.length / 2;
+		return (sorted.length % 2 == 1) ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+	}
+
+}
@@ -0,0 +1,222 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of a run of an experiment on an instance, as stored by a
+ * {@link ResultsStore}: one line of CSV, with the columns of {@link #HEADER},
+ * or one JSON object per line, with the same keys.
+ */
+public class RunResult {
+
+	/**
+	 * the columns of a CSV line, which are also the keys of a JSON line.
+	 */
+	public static final String[] COLUMNS = { "instance", "experiment", "tenure", "seed", "best_cost", "iterations",
+			"iterations_per_second", "seconds", "time_to_best", "stop_reason" };
+
+	/**
+	 * the header of a CSV file.
+	 */
+	public static final String HEADER = String.join(",", COLUMNS);
+
+	public final String instance;
+	public final String experiment;
+	public final int tenure;
+	public final long seed;
+	public final double bestCost;
+	public final int iterations;
+
+	/**
+	 * the time of the run, and the time from its start to its best solution,
+	 * in seconds.
+	 */
+	public final double seconds;
+	public final double timeToBest;
+
+	public final String stopReason;
+
+	public RunResult(String instance, String experiment, int tenure, long seed, double bestCost, int iterations,
+			double seconds, double timeToBest, String stopReason) {
+		this.instance = instance;
+		this.experiment = experiment;
+		this.tenure = tenure;
+		this.seed = seed;
+		this.bestCost = bestCost;
+		this.iterations = iterations;
+		this.seconds = seconds;
+		this.timeToBest = timeToBest;
+		this.stopReason = stopReason;
+	}
+
+	/**
+	 * Gives the speed of the run, which is undefined for a run too short to
+	 * be timed.
+	 *
+	 * @return the iterations per second, or NaN if the run took no time.
+	 */
+	public double getIterationsPerSecond() {
+		return (seconds > 0) ? iterations / seconds : Double.NaN;
+	}
+
+	/**
+	 * Gives the configuration of the run, the runs of a configuration
+	 * differing only by their seeds.
+	 *
+	 * @return the instance, experiment and tenure of the run, in this order.
+	 */
+	public List<Object> getConfiguration() {
+		return Arrays.asList(instance, experiment, tenure);
+	}
+
+	private Object[] values() {
+		return new Object[] { instance, experiment, tenure, seed, bestCost, iterations, getIterationsPerSecond(),
+				seconds, timeToBest, stopReason };
+	}
+
+	public String toCsv() {
+		return toCsv(values());
+	}
+
+	/**
+	 * Writes some values as a line of CSV, quoting the strings holding a
+	 * comma or a quote.
+	 *
+	 * @param values
+	 *            the values of the line.
+	 * @return the line.
+	 */
+	static String toCsv(Object... values) {
+		StringBuilder line = new StringBuilder();
+		for (Object value : values) {
+			if (line.length() > 0)
+				line.append(',');
+			String text = String.valueOf(value);
+			if (value instanceof String && (text.indexOf(',') >= 0 || text.indexOf('"') >= 0))
+				text = '"' + text.replace("\"", "\"\"") + '"';
+			line.append(text);
+		}
+		return line.toString();
+	}
+
+	public String toJson() {
+		StringBuilder line = new StringBuilder("{");
+		Object[] values = values();
+		for (int k = 0; k < COLUMNS.length; k++) {
+			if (k > 0)
+				line.append(", ");
+			line.append('"').append(COLUMNS[k]).append("\": ");
+			if (values[k] instanceof String) {
+				line.append('"').append(((String) values[k]).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+			} else if (values[k] instanceof Double && !Double.isFinite((Double) values[k])) {
+				line.append("null");
+			} else {
+				line.append(values[k]);
+			}
+		}
+		return line.append('}').toString();
+	}
+
+	/**
+	 * Reads a line of CSV.
+	 *
+	 * @param line
+	 *            a line written by {@link #toCsv()}.
+	 * @return the result in the line.
+	 */
+	public static RunResult parseCsv(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for (int k = 0; k < line.length(); k++) {
+			char c = line.charAt(k);
+			if (quoted) {
+				if (c == '"' && k + 1 < line.length() && line.charAt(k + 1) == '"') {
+					value.append('"');
+					k++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					value.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		values.add(value.toString());
+		Map<String, String> fields = new LinkedHashMap<>();
+		for (int k = 0; k < COLUMNS.length && k < values.size(); k++) {
+			fields.put(COLUMNS[k], values.get(k));
+		}
+		return of(fields, line);
+	}
+
+	/**
+	 * Reads a line of JSON, a flat object of strings and numbers.
+	 *
+	 * @param line
+	 *            a line written by {@link #toJson()}.
+	 * @return the result in the line.
+	 */
+	public static RunResult parseJson(String line) {
+		Map<String, String> fields = new LinkedHashMap<>();
+		int k = line.indexOf('{') + 1;
+		while (k > 0 && k < line.length()) {
+			int keyStart = line.indexOf('"', k);
+			if (keyStart < 0)
+				break;
+			int keyEnd = line.indexOf('"', keyStart + 1);
+			int colon = line.indexOf(':', keyEnd);
+			int start = colon + 1;
+			while (line.charAt(start) == ' ')
+				start++;
+			StringBuilder value = new StringBuilder();
+			if (line.charAt(start) == '"') {
+				k = start + 1;
+				while (line.charAt(k) != '"') {
+					if (line.charAt(k) == '\\')
+						k++;
+					value.append(line.charAt(k++));
+				}
+				k++;
+			} else {
+				k = start;
+				while (k < line.length() && line.charAt(k) != ',' && line.charAt(k) != '}')
+					value.append(line.charAt(k++));
+			}
+			fields.put(line.substring(keyStart + 1, keyEnd), value.toString().trim());
+			k = line.indexOf(',', k) + 1;
+		}
+		return of(fields, line);
+	}
+
+	private static RunResult of(Map<String, String> fields, String line) {
+		for (String column : COLUMNS) {
+			if (!fields.containsKey(column))
+				throw new IllegalArgumentException("Missing " + column + " in the result " + line);
+		}
+		return new RunResult(fields.get("instance"), fields.get("experiment"), Integer.parseInt(fields.get("tenure")),
+				Long.parseLong(fields.get("seed")), number(fields.get("best_cost")),
+				Integer.parseInt(fields.get("iterations")), number(fields.get("seconds")),
+				number(fields.get("time_to_best")), fields.get("stop_reason"));
+	}
+
+	private static double number(String text) {
+		return text.equals("null") ? Double.NaN : Double.parseDouble(text);
+	}
+
+	@Override
+	public String toString() {
+		return toCsv();
+	}
+
+}
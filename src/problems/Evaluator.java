@@ -1,5 +1,7 @@
 package problems;
 
+import java.util.List;
+
 import solutions.Solution;
 
 /**
@@ -75,4 +77,93 @@ public interface Evaluator<E> {
 	 */
 	public abstract Double evaluateExchangeCost(E elemIn, E elemOut, Solution<E> sol);
 
+	/**
+	 * Evaluates, in a single pass, the cost variation of inserting each one of
+	 * a list of candidates into a solution.
+	 * 
+	 * @param candidates
+	 *            the elements under consideration for insertion.
+	 * @param sol
+	 *            the solution for which the insertions are being evaluated.
+	 * @param deltas
+	 *            buffer receiving at position k the cost variation of
+	 *            inserting {@code candidates.get(k)}.
+	 */
+	public default void evaluateInsertionCosts(List<E> candidates, Solution<E> sol, double[] deltas) {
+		for (int k = 0; k < candidates.size(); k++) {
+			deltas[k] = evaluateInsertionCost(candidates.get(k), sol);
+		}
+	}
+
+	/**
+	 * Evaluates, in a single pass, the cost variation of removing each one of
+	 * the elements of a solution.
+	 * 
+	 * @param sol
+	 *            the solution for which the removals are being evaluated.
+	 * @param deltas
+	 *            buffer receiving at position j the cost variation of removing
+	 *            {@code sol.get(j)}.
+	 */
+	public default void evaluateRemovalCosts(Solution<E> sol, double[] deltas) {
+		for (int j = 0; j < sol.size(); j++) {
+			deltas[j] = evaluateRemovalCost(sol.get(j), sol);
+		}
+	}
+
+	/**
+	 * Evaluates the cost variation of exchanging each candidate of a block of
+	 * candidates to enter the solution with each element of the solution.
+	 * 
+	 * @param candidatesIn
+	 *            the elements under consideration for insertion.
+	 * @param from
+	 *            index of the first candidate of the block (inclusive).
+	 * @param to
+	 *            index of the last candidate of the block (exclusive).
+	 * @param sol
+	 *            the solution for which the exchanges are being evaluated.
+	 * @param deltas
+	 *            buffer receiving at position {@code (k-from)*sol.size()+j}
+	 *            the cost variation of exchanging {@code candidatesIn.get(k)}
+	 *            with {@code sol.get(j)}.
+	 */
+	public default void evaluateExchangeCosts(List<E> candidatesIn, int from, int to, Solution<E> sol, double[] deltas) {
+		int solSize = sol.size();
+		for (int k = from, d = 0; k < to; k++) {
+			E elemIn = candidatesIn.get(k);
+			for (int j = 0; j < solSize; j++, d++) {
+				deltas[d] = evaluateExchangeCost(elemIn, sol.get(j), sol);
+			}
+		}
+	}
+
+	/**
+	 * Updates the cost of a solution after an element has been inserted into
+	 * it. Evaluators that keep information about the solution being
+	 * evaluated can override this method to avoid a full evaluation.
+	 * 
+	 * @param elem
+	 *            the element that has been inserted.
+	 * @param sol
+	 *            the solution which received the element.
+	 */
+	public default void commitInsertion(E elem, Solution<E> sol) {
+		evaluate(sol);
+	}
+
+	/**
+	 * Updates the cost of a solution after an element has been removed from
+	 * it. Evaluators that keep information about the solution being
+	 * evaluated can override this method to avoid a full evaluation.
+	 * 
+	 * @param elem
+	 *            the element that has been removed.
+	 * @param sol
+	 *            the solution from which the element was removed.
+	 */
+	public default void commitRemoval(E elem, Solution<E> sol) {
+		evaluate(sol);
+	}
+
 }
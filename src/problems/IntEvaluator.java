@@ -0,0 +1,121 @@
+package problems;
+
+import solutions.IntSolution;
+
+/**
+ * The primitive counterpart of {@link Evaluator} for problems whose elements
+ * are the integers of a domain {0, ..., n-1}: candidates are ints, solutions
+ * are {@link IntSolution}s and costs are doubles, so no call boxes an element
+ * or a cost.
+ *
+ * An evaluator may keep information about the solution it last evaluated,
+ * which is then said to be tracked. The commit methods update that
+ * information after a move and give the cost variation of the move instead
+ * of updating the cost of the solution, which the caller keeps.
+ */
+public interface IntEvaluator {
+
+	/**
+	 * Gives the size of the problem domain.
+	 *
+	 * @return the size of the problem domain.
+	 */
+	public abstract int domainSize();
+
+	/**
+	 * Evaluates a solution, which becomes the tracked one.
+	 *
+	 * @param sol
+	 *            the solution under evaluation.
+	 * @return the evaluation of the solution.
+	 */
+	public abstract double evaluate(IntSolution sol);
+
+	/**
+	 * Evaluates the cost variation of inserting each one of a list of
+	 * candidates into a solution.
+	 *
+	 * @param candidates
+	 *            the elements under consideration for insertion, in positions
+	 *            [0, count).
+	 * @param count
+	 *            the number of candidates.
+	 * @param sol
+	 *            the solution for which the insertions are being evaluated.
+	 * @param deltas
+	 *            buffer receiving at position k the cost variation of
+	 *            inserting {@code candidates[k]}.
+	 */
+	public abstract void evaluateInsertionCosts(int[] candidates, int count, IntSolution sol, double[] deltas);
+
+	/**
+	 * Evaluates the cost variation of removing each one of the elements of a
+	 * solution.
+	 *
+	 * @param sol
+	 *            the solution for which the removals are being evaluated.
+	 * @param deltas
+	 *            buffer receiving at position j the cost variation of removing
+	 *            {@code sol.elementAt(j)}.
+	 */
+	public abstract void evaluateRemovalCosts(IntSolution sol, double[] deltas);
+
+	/**
+	 * Evaluates the cost variation of exchanging a candidate to enter the
+	 * solution with an element of the solution.
+	 *
+	 * @param elemIn
+	 *            the element under consideration for insertion.
+	 * @param elemOut
+	 *            the element under consideration for removal.
+	 * @param sol
+	 *            the solution for which the exchange is being evaluated.
+	 * @return the cost variation of the exchange.
+	 */
+	public abstract double evaluateExchangeCost(int elemIn, int elemOut, IntSolution sol);
+
+	/**
+	 * Evaluates the cost variation of exchanging each candidate of a block of
+	 * candidates to enter the solution with each element of the solution.
+	 *
+	 * @param candidatesIn
+	 *            the elements under consideration for insertion.
+	 * @param from
+	 *            index of the first candidate of the block (inclusive).
+	 * @param to
+	 *            index of the last candidate of the block (exclusive).
+	 * @param sol
+	 *            the solution for which the exchanges are being evaluated.
+	 * @param deltas
+	 *            buffer receiving at position {@code (k-from)*sol.size()+j}
+	 *            the cost variation of exchanging {@code candidatesIn[k]} with
+	 *            {@code sol.elementAt(j)}.
+	 */
+	public abstract void evaluateExchangeCosts(int[] candidatesIn, int from, int to, IntSolution sol,
+			double[] deltas);
+
+	/**
+	 * Updates the tracked solution after an element has been inserted into
+	 * it.
+	 *
+	 * @param elem
+	 *            the element that has been inserted.
+	 * @param sol
+	 *            the tracked solution, which received the element.
+	 * @return the cost variation of the insertion.
+	 */
+	public abstract double commitInsertion(int elem, IntSolution sol);
+
+	/**
+	 * Updates the tracked solution after an element has been removed from
+	 * it.
+	 *
+	 * @param elem
+	 *            the element that has been removed.
+	 * @param sol
+	 *            the tracked solution, from which the element was removed.
+	 * @return the cost variation of the removal.
+	 */
+	public abstract double commitRemoval(int elem, IntSolution sol);
+
+}
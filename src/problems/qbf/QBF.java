@@ -1,12 +1,13 @@
 package problems.qbf;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StreamTokenizer;
 import java.util.Arrays;
+import java.util.List;
 import problems.Evaluator;
+import problems.IntEvaluator;
+import problems.qbf.matrix.CoefficientMatrices;
+import problems.qbf.matrix.CoefficientMatrix;
+import solutions.IntSolution;
 import solutions.Solution;
 
 /**
@@ -20,10 +21,14 @@ import solutions.Solution;
  * problem: a survey. J Comb Optim (2014) 28:58–81. DOI
  * 10.1007/s10878-014-9734-0.
  * 
+ * The QBF is both an {@link Evaluator} of boxed elements and an
+ * {@link IntEvaluator}, whose methods share the same kernels and give the same
+ * costs.
+ * 
  * @author ccavellucci, fusberti
  *
  */
-public class QBF implements Evaluator<Integer> {
+public class QBF implements Evaluator<Integer>, IntEvaluator {
 
 	/**
 	 * Dimension of the domain.
@@ -33,17 +38,39 @@ public class QBF implements Evaluator<Integer> {
 	/**
 	 * The array of numbers representing the domain.
 	 */
-	public final Double[] variables;
+	public final double[] variables;
+
+	/**
+	 * The matrix A of coefficients for the QBF f(x) = x'.A.x, whose storage is
+	 * chosen when the instance is read (see {@link CoefficientMatrices}).
+	 */
+	public final CoefficientMatrix A;
 
 	/**
-	 * The matrix A of coefficients for the QBF f(x) = x'.A.x
+	 * The contribution of each variable to the QBF given the solution being
+	 * tracked, i.e., the cost variation of flipping it on. Only meaningful
+	 * while {@link #tracked} is set.
 	 */
-	public Double[][] A;
+	protected final double[] gains;
+
+	/**
+	 * The solution whose state is kept in {@link #variables} and
+	 * {@link #gains}, or null if no solution is being tracked.
+	 */
+	protected Solution<Integer> tracked;
+
+	/**
+	 * The size and the modification counter (see
+	 * {@link Solution#modifications()}) of the tracked solution when its
+	 * state was last brought up to date, which tell whether it was modified
+	 * since then without the change being committed.
+	 */
+	private int trackedSize, trackedModifications;
 
 	/**
 	 * The constructor for QuadracticBinaryFunction class. The filename of the
-	 * input for setting matrix of coefficients A of the QBF. The dimension of
-	 * the array of variables x is returned from the {@link #readInput} method.
+	 * input for setting matrix of coefficients A of the QBF, which is read by
+	 * {@link CoefficientMatrices#read(String)}.
 	 * 
 	 * @param filename
 	 *            Name of the file containing the input for setting the QBF.
@@ -51,13 +78,27 @@ public class QBF implements Evaluator<Integer> {
 	 *             Necessary for I/O operations.
 	 */
 	public QBF(String filename) throws IOException {
-		size = readInput(filename);
+		this(CoefficientMatrices.read(filename));
+	}
+
+	/**
+	 * Constructor for a QBF whose matrix of coefficients was already read.
+	 * The dimension of the array of variables x is the dimension of A.
+	 * 
+	 * @param A
+	 *            The matrix of coefficients of the QBF.
+	 */
+	public QBF(CoefficientMatrix A) {
+		this.A = A;
+		size = A.size();
 		variables = allocateVariables();
+		gains = new double[size];
 	}
 
 	/**
 	 * Evaluates the value of a solution by transforming it into a vector. This
 	 * is required to perform the matrix multiplication which defines a QBF.
+	 * Any solution previously tracked by {@link #evaluate} stops being tracked.
 	 * 
 	 * @param sol
 	 *            the solution which will be evaluated.
@@ -83,6 +124,11 @@ public class QBF implements Evaluator<Integer> {
 		return size;
 	}
 
+	@Override
+	public int domainSize() {
+		return size;
+	}
+
 	/**
 	 * {@inheritDoc} In the case of a QBF, the evaluation correspond to
 	 * computing a matrix multiplication x'.A.x. A better way to evaluate this
@@ -90,37 +136,157 @@ public class QBF implements Evaluator<Integer> {
 	 * {@link #evaluateInsertionQBF(int)}, {@link #evaluateRemovalQBF(int)} and
 	 * {@link #evaluateExchangeQBF(int,int)}.
 	 * 
+	 * The evaluated solution becomes the tracked one: the contribution of
+	 * every variable is kept in {@link #gains}, so that insertion, removal
+	 * and exchange costs on it are answered in O(1). Changes to the solution
+	 * must then be reported through {@link #commitInsertion} and
+	 * {@link #commitRemoval}, one element at a time. A solution modified
+	 * otherwise is evaluated again by the next call, or rejected by the
+	 * primitive commits.
+	 * 
 	 * @return The evaluation of the QBF.
 	 */
 	@Override
 	public Double evaluate(Solution<Integer> sol) {
 
 		setVariables(sol);
+		updateGains(sol);
+		tracked = sol;
+		trackedSize = sol.size();
+		trackedModifications = sol.modifications();
 		return sol.cost = evaluateQBF();
 
 	}
 
+	@Override
+	public double evaluate(IntSolution sol) {
+		return evaluate((Solution<Integer>) sol);
+	}
+
+	/**
+	 * {@inheritDoc} The contribution vector {@link #gains} is updated in O(n)
+	 * instead of evaluating the whole solution again.
+	 */
+	@Override
+	public void commitInsertion(Integer elem, Solution<Integer> sol) {
+
+		if (!isTracked(sol, (variables[elem] == 1) ? 0 : 1)) {
+			evaluate(sol);
+			return;
+		}
+		if (variables[elem] == 1)
+			return;
+		sol.cost += evaluateInsertionQBF(elem);
+		variables[elem] = 1.0;
+		addContributions(elem, 1.0);
+		committed(sol);
+
+	}
+
+	/**
+	 * {@inheritDoc} The contribution vector {@link #gains} is updated in O(n)
+	 * instead of evaluating the whole solution again.
+	 */
+	@Override
+	public void commitRemoval(Integer elem, Solution<Integer> sol) {
+
+		if (!isTracked(sol, (variables[elem] == 0) ? 0 : -1)) {
+			evaluate(sol);
+			return;
+		}
+		if (variables[elem] == 0)
+			return;
+		sol.cost += evaluateRemovalQBF(elem);
+		variables[elem] = 0.0;
+		addContributions(elem, -1.0);
+		committed(sol);
+
+	}
+
+	/**
+	 * {@inheritDoc} The contribution vector {@link #gains} is updated in O(n).
+	 * 
+	 * @throws IllegalStateException
+	 *             if the solution is not the tracked one, or was modified
+	 *             otherwise than by the insertion of the element.
+	 */
+	@Override
+	public double commitInsertion(int elem, IntSolution sol) {
+
+		requireTracked(sol, (variables[elem] == 1) ? 0 : 1);
+		if (variables[elem] == 1)
+			return 0.0;
+		double delta = evaluateInsertionQBF(elem);
+		variables[elem] = 1.0;
+		addContributions(elem, 1.0);
+		committed(sol);
+		return delta;
+
+	}
+
+	/**
+	 * {@inheritDoc} The contribution vector {@link #gains} is updated in O(n).
+	 * 
+	 * @throws IllegalStateException
+	 *             if the solution is not the tracked one, or was modified
+	 *             otherwise than by the removal of the element.
+	 */
+	@Override
+	public double commitRemoval(int elem, IntSolution sol) {
+
+		requireTracked(sol, (variables[elem] == 0) ? 0 : -1);
+		if (variables[elem] == 0)
+			return 0.0;
+		double delta = evaluateRemovalQBF(elem);
+		variables[elem] = 0.0;
+		addContributions(elem, -1.0);
+		committed(sol);
+		return delta;
+
+	}
+
+	private void requireTracked(Solution<Integer> sol, int sizeChange) {
+		if (!isTracked(sol, sizeChange))
+			throw new IllegalStateException(
+					"The solution is not the one last evaluated, or was modified without a commit");
+	}
+
+	/**
+	 * Tests whether the state of the QBF is the state of a solution, up to a
+	 * single change being committed.
+	 * 
+	 * @param sol
+	 *            the solution.
+	 * @param sizeChange
+	 *            the change of the size of the solution since its state was
+	 *            last brought up to date: 1 for an insertion being committed,
+	 *            -1 for a removal or 0 if no change is expected.
+	 * @return true if the solution is the tracked one and it was modified
+	 *         at most by the change being committed.
+	 */
+	private boolean isTracked(Solution<Integer> sol, int sizeChange) {
+		return sol == tracked && sol.size() == trackedSize + sizeChange
+				&& sol.modifications() == trackedModifications + ((sizeChange != 0) ? 1 : 0);
+	}
+
+	/**
+	 * Brings the fingerprint of the tracked solution up to date after a
+	 * change was committed.
+	 */
+	private void committed(Solution<Integer> sol) {
+		trackedSize = sol.size();
+		trackedModifications = sol.modifications();
+	}
+
 	/**
 	 * Evaluates a QBF by calculating the matrix multiplication that defines the
 	 * QBF: f(x) = x'.A.x .
 	 * 
 	 * @return The value of the QBF.
 	 */
-	public Double evaluateQBF() {
-
-		Double aux = (double) 0, sum = (double) 0;
-		Double vecAux[] = new Double[size];
+	public double evaluateQBF() {
 
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				aux += variables[j] * A[i][j];
-			}
-			vecAux[i] = aux;
-			sum += aux * variables[i];
-			aux = (double) 0;
-		}
-
-		return sum;
+		return A.evaluate(variables);
 
 	}
 
@@ -133,7 +299,8 @@ public class QBF implements Evaluator<Integer> {
 	@Override
 	public Double evaluateInsertionCost(Integer elem, Solution<Integer> sol) {
 
-		setVariables(sol);
+		if (!isTracked(sol, 0))
+			setVariables(sol);
 		return evaluateInsertionQBF(elem);
 
 	}
@@ -147,7 +314,7 @@ public class QBF implements Evaluator<Integer> {
 	 * @return Ihe variation of the objective function resulting from the
 	 *         insertion.
 	 */
-	public Double evaluateInsertionQBF(int i) {
+	public double evaluateInsertionQBF(int i) {
 
 		if (variables[i] == 1)
 			return 0.0;
@@ -164,7 +331,8 @@ public class QBF implements Evaluator<Integer> {
 	@Override
 	public Double evaluateRemovalCost(Integer elem, Solution<Integer> sol) {
 
-		setVariables(sol);
+		if (!isTracked(sol, 0))
+			setVariables(sol);
 		return evaluateRemovalQBF(elem);
 
 	}
@@ -178,7 +346,7 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The variation of the objective function resulting from the
 	 *         removal.
 	 */
-	public Double evaluateRemovalQBF(int i) {
+	public double evaluateRemovalQBF(int i) {
 
 		if (variables[i] == 0)
 			return 0.0;
@@ -196,7 +364,8 @@ public class QBF implements Evaluator<Integer> {
 	@Override
 	public Double evaluateExchangeCost(Integer elemIn, Integer elemOut, Solution<Integer> sol) {
 
-		setVariables(sol);
+		if (!isTracked(sol, 0))
+			setVariables(sol);
 		return evaluateExchangeQBF(elemIn, elemOut);
 
 	}
@@ -214,9 +383,9 @@ public class QBF implements Evaluator<Integer> {
 	 * @return The variation of the objective function resulting from the
 	 *         exchange.
 	 */
-	public Double evaluateExchangeQBF(int in, int out) {
+	public double evaluateExchangeQBF(int in, int out) {
 
-		Double sum = 0.0;
+		double sum = 0.0;
 
 		if (in == out)
 			return 0.0;
@@ -227,11 +396,168 @@ public class QBF implements Evaluator<Integer> {
 
 		sum += evaluateContributionQBF(in);
 		sum -= evaluateContributionQBF(out);
-		sum -= (A[in][out] + A[out][in]);
+		sum -= A.interaction(in, out);
 
 		return sum;
 	}
 
+	/**
+	 * {@inheritDoc} The solution becomes the tracked one, so each insertion
+	 * cost is read from {@link #gains} in a primitive loop.
+	 */
+	@Override
+	public void evaluateInsertionCosts(List<Integer> candidates, Solution<Integer> sol, double[] deltas) {
+
+		track(sol);
+		int n = candidates.size();
+		for (int k = 0; k < n; k++) {
+			int i = candidates.get(k);
+			deltas[k] = (variables[i] == 1) ? 0.0 : gains[i];
+		}
+
+	}
+
+	@Override
+	public void evaluateInsertionCosts(int[] candidates, int count, IntSolution sol, double[] deltas) {
+
+		track(sol);
+		for (int k = 0; k < count; k++) {
+			int i = candidates[k];
+			deltas[k] = (variables[i] == 1) ? 0.0 : gains[i];
+		}
+
+	}
+
+	/**
+	 * {@inheritDoc} The solution becomes the tracked one, so each removal
+	 * cost is read from {@link #gains} in a primitive loop.
+	 */
+	@Override
+	public void evaluateRemovalCosts(Solution<Integer> sol, double[] deltas) {
+
+		track(sol);
+		int n = sol.size();
+		for (int j = 0; j < n; j++) {
+			int i = sol.get(j);
+			deltas[j] = (variables[i] == 0) ? 0.0 : -gains[i];
+		}
+
+	}
+
+	@Override
+	public void evaluateRemovalCosts(IntSolution sol, double[] deltas) {
+
+		track(sol);
+		int n = sol.size();
+		int[] elements = sol.elements();
+		for (int j = 0; j < n; j++) {
+			int i = elements[j];
+			deltas[j] = (variables[i] == 0) ? 0.0 : -gains[i];
+		}
+
+	}
+
+	/**
+	 * {@inheritDoc} The solution becomes the tracked one, and each row of the
+	 * block is a primitive loop over the indices of its elements. Once the
+	 * solution is tracked this method only reads the state of the QBF, so it
+	 * may be called concurrently for disjoint blocks of candidates.
+	 */
+	@Override
+	public void evaluateExchangeCosts(List<Integer> candidatesIn, int from, int to, Solution<Integer> sol,
+			double[] deltas) {
+
+		track(sol);
+		int solSize = sol.size();
+		int[] outs = (sol instanceof IntSolution) ? ((IntSolution) sol).elements() : toIndices(sol);
+
+		for (int k = from, d = 0; k < to; k++, d += solSize) {
+			evaluateExchangeRow(candidatesIn.get(k), outs, solSize, deltas, d);
+		}
+
+	}
+
+	@Override
+	public double evaluateExchangeCost(int elemIn, int elemOut, IntSolution sol) {
+
+		track(sol);
+		return evaluateExchangeQBF(elemIn, elemOut);
+
+	}
+
+	@Override
+	public void evaluateExchangeCosts(int[] candidatesIn, int from, int to, IntSolution sol, double[] deltas) {
+
+		track(sol);
+		int solSize = sol.size();
+		int[] outs = sol.elements();
+
+		for (int k = from, d = 0; k < to; k++, d += solSize) {
+			evaluateExchangeRow(candidatesIn[k], outs, solSize, deltas, d);
+		}
+
+	}
+
+	/**
+	 * Evaluates the exchanges of a candidate with each element of the tracked
+	 * solution.
+	 * 
+	 * @param in
+	 *            the element entering the solution.
+	 * @param outs
+	 *            the elements of the solution, in positions [0, solSize).
+	 * @param solSize
+	 *            the size of the solution.
+	 * @param deltas
+	 *            buffer receiving at position d+j the cost variation of
+	 *            exchanging in with outs[j].
+	 * @param d
+	 *            the position of the first cost variation in the buffer.
+	 */
+	private void evaluateExchangeRow(int in, int[] outs, int solSize, double[] deltas, int d) {
+
+		if (variables[in] == 1) {
+			/* the exchange degenerates into the removal of out */
+			for (int j = 0; j < solSize; j++) {
+				deltas[d + j] = (in == outs[j]) ? 0.0 : -gains[outs[j]];
+			}
+			return;
+		}
+		double gainIn = gains[in];
+		A.interactions(in, outs, solSize, deltas, d);
+		for (int j = 0; j < solSize; j++) {
+			deltas[d + j] = gainIn - gains[outs[j]] - deltas[d + j];
+		}
+
+	}
+
+	/**
+	 * Copies the elements of a solution into an array of indices.
+	 * 
+	 * @param sol
+	 *            the solution whose elements are copied.
+	 * @return the indices of the elements, in the order of the solution.
+	 */
+	private static int[] toIndices(Solution<Integer> sol) {
+		int[] indices = new int[sol.size()];
+		for (int j = 0; j < indices.length; j++) {
+			indices[j] = sol.get(j);
+		}
+		return indices;
+	}
+
+	/**
+	 * Makes a solution the tracked one, evaluating it only if it is not
+	 * already being tracked or it was modified without a commit.
+	 * 
+	 * @param sol
+	 *            the solution to be tracked.
+	 */
+	private void track(Solution<Integer> sol) {
+		if (!isTracked(sol, 0))
+			evaluate(sol);
+	}
+
 	/**
 	 * Determines the contribution to the QBF objective function from the
 	 * insertion of an element. This method is faster than evaluating the whole
@@ -239,58 +565,53 @@ public class QBF implements Evaluator<Integer> {
 	 * matrix A needs to be evaluated when inserting a new element into the
 	 * solution. This method is different from {@link #evaluateInsertionQBF(int)},
 	 * since it disregards the fact that the element might already be in the
-	 * solution.
+	 * solution. When a solution is being tracked the contribution is read
+	 * from {@link #gains} in O(1).
 	 * 
 	 * @param i
 	 *            index of the element being inserted into the solution.
 	 * @return the variation of the objective function resulting from the
 	 *         insertion.
 	 */
-	private Double evaluateContributionQBF(int i) {
+	private double evaluateContributionQBF(int i) {
 
-		Double sum = 0.0;
+		if (tracked != null)
+			return gains[i];
 
-		for (int j = 0; j < size; j++) {
-			if (i != j)
-				sum += variables[j] * (A[i][j] + A[j][i]);
-		}
-		sum += A[i][i];
-
-		return sum;
+		return A.contribution(i, variables);
 	}
 
 	/**
-	 * Responsible for setting the QBF function parameters by reading the
-	 * necessary input from an external file. this method reads the domain's
-	 * dimension and matrix {@link #A}.
+	 * Rebuilds the contribution vector {@link #gains} for a solution, in
+	 * O(n.|S|) operations.
 	 * 
-	 * @param filename
-	 *            Name of the file containing the input for setting the black
-	 *            box function.
-	 * @return The dimension of the domain.
-	 * @throws IOException
-	 *             Necessary for I/O operations.
+	 * @param sol
+	 *            the solution whose contributions are computed.
 	 */
-	protected Integer readInput(String filename) throws IOException {
+	private void updateGains(Solution<Integer> sol) {
 
-		Reader fileInst = new BufferedReader(new FileReader(filename));
-		StreamTokenizer stok = new StreamTokenizer(fileInst);
+		for (int i = 0; i < size; i++) {
+			gains[i] = A.diagonal(i);
+		}
+		for (Integer elem : sol) {
+			addContributions(elem, 1.0);
+		}
 
-		stok.nextToken();
-		Integer _size = (int) stok.nval;
-		A = new Double[_size][_size];
+	}
 
-		for (int i = 0; i < _size; i++) {
-			for (int j = i; j < _size; j++) {
-				stok.nextToken();
-				A[i][j] = stok.nval;
-				//A[j][i] = A[i][j];
-				if (j>i)
-					A[j][i] = 0.0;
-			}
-		}
+	/**
+	 * Adds the interaction terms of element k, scaled by a factor, to the
+	 * contributions of all other elements. This reflects in {@link #gains}
+	 * the insertion (factor 1) or the removal (factor -1) of k.
+	 * 
+	 * @param k
+	 *            index of the element being inserted or removed.
+	 * @param factor
+	 *            1 for an insertion, -1 for a removal.
+	 */
+	private void addContributions(int k, double factor) {
 
-		return _size;
+		A.addInteractions(k, factor, gains);
 
 	}
 
@@ -300,15 +621,17 @@ public class QBF implements Evaluator<Integer> {
 	 * 
 	 * @return a pointer to the array of domain variables.
 	 */
-	protected Double[] allocateVariables() {
-		Double[] _variables = new Double[size];
+	protected double[] allocateVariables() {
+		double[] _variables = new double[size];
 		return _variables;
 	}
 
 	/**
-	 * Reset the domain variables to their default values.
+	 * Reset the domain variables to their default values. Any solution
+	 * previously tracked by {@link #evaluate} stops being tracked.
 	 */
 	public void resetVariables() {
+		tracked = null;
 		Arrays.fill(variables, 0.0);
 	}
 
@@ -319,7 +642,7 @@ public class QBF implements Evaluator<Integer> {
 
 		for (int i = 0; i < size; i++) {
 			for (int j = i; j < size; j++) {
-				System.out.print(A[i][j] + " ");
+				System.out.print(A.get(i, j) + " ");
 			}
 			System.out.println();
 		}
@@ -336,7 +659,7 @@ public class QBF implements Evaluator<Integer> {
 
 		QBF qbf = new QBF("instances/qbf040");
 		qbf.printMatrix();
-		Double maxVal = Double.NEGATIVE_INFINITY;
+		double maxVal = Double.NEGATIVE_INFINITY;
 		
 //		System.out.println("maxVal = " + qbf.evaluateQBF());
 //		System.out.println("size = " + qbf.variables.length);
@@ -353,7 +676,7 @@ public class QBF implements Evaluator<Integer> {
 					qbf.variables[j] = 1.0;
 			}
 			System.out.println("x = " + Arrays.toString(qbf.variables));
-			Double eval = qbf.evaluateQBF();
+			double eval = qbf.evaluateQBF();
 			System.out.println("f(x) = " + eval);
 			if (maxVal < eval)
 				maxVal = eval;
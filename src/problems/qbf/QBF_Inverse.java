@@ -1,6 +1,12 @@
 package problems.qbf;
 
 import java.io.IOException;
+import java.util.List;
+
+import problems.qbf.matrix.CoefficientMatrix;
+
+import solutions.IntSolution;
+import solutions.Solution;
 
 /**
  * Class representing the inverse of the Quadractic Binary Function
@@ -24,12 +30,23 @@ public class QBF_Inverse extends QBF {
 		super(filename);
 	}
 
+	/**
+	 * Constructor for a QBF_Inverse whose matrix of coefficients was already
+	 * read.
+	 * 
+	 * @param A
+	 *            The matrix of coefficients of the QBF.
+	 */
+	public QBF_Inverse(CoefficientMatrix A) {
+		super(A);
+	}
+
 
 	/* (non-Javadoc)
 	 * @see problems.qbf.QBF#evaluate()
 	 */
 	@Override
-	public Double evaluateQBF() {
+	public double evaluateQBF() {
 		return -super.evaluateQBF();
 	}
 	
@@ -37,7 +54,7 @@ public class QBF_Inverse extends QBF {
 	 * @see problems.qbf.QBF#evaluateInsertion(int)
 	 */
 	@Override
-	public Double evaluateInsertionQBF(int i) {	
+	public double evaluateInsertionQBF(int i) {	
 		return -super.evaluateInsertionQBF(i);
 	}
 	
@@ -45,7 +62,7 @@ public class QBF_Inverse extends QBF {
 	 * @see problems.qbf.QBF#evaluateRemoval(int)
 	 */
 	@Override
-	public Double evaluateRemovalQBF(int i) {
+	public double evaluateRemovalQBF(int i) {
 		return -super.evaluateRemovalQBF(i);
 	}
 	
@@ -53,8 +70,77 @@ public class QBF_Inverse extends QBF {
 	 * @see problems.qbf.QBF#evaluateExchange(int, int)
 	 */
 	@Override
-	public Double evaluateExchangeQBF(int in, int out) {
+	public double evaluateExchangeQBF(int in, int out) {
 		return -super.evaluateExchangeQBF(in,out);
 	}
 
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateInsertionCosts(java.util.List, solutions.Solution, double[])
+	 */
+	@Override
+	public void evaluateInsertionCosts(List<Integer> candidates, Solution<Integer> sol, double[] deltas) {
+		super.evaluateInsertionCosts(candidates, sol, deltas);
+		negate(deltas, candidates.size());
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateRemovalCosts(solutions.Solution, double[])
+	 */
+	@Override
+	public void evaluateRemovalCosts(Solution<Integer> sol, double[] deltas) {
+		super.evaluateRemovalCosts(sol, deltas);
+		negate(deltas, sol.size());
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateExchangeCosts(java.util.List, int, int, solutions.Solution, double[])
+	 */
+	@Override
+	public void evaluateExchangeCosts(List<Integer> candidatesIn, int from, int to, Solution<Integer> sol,
+			double[] deltas) {
+		super.evaluateExchangeCosts(candidatesIn, from, to, sol, deltas);
+		negate(deltas, (to - from) * sol.size());
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateInsertionCosts(int[], int, solutions.IntSolution, double[])
+	 */
+	@Override
+	public void evaluateInsertionCosts(int[] candidates, int count, IntSolution sol, double[] deltas) {
+		super.evaluateInsertionCosts(candidates, count, sol, deltas);
+		negate(deltas, count);
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateRemovalCosts(solutions.IntSolution, double[])
+	 */
+	@Override
+	public void evaluateRemovalCosts(IntSolution sol, double[] deltas) {
+		super.evaluateRemovalCosts(sol, deltas);
+		negate(deltas, sol.size());
+	}
+
+	/* (non-Javadoc)
+	 * @see problems.qbf.QBF#evaluateExchangeCosts(int[], int, int, solutions.IntSolution, double[])
+	 */
+	@Override
+	public void evaluateExchangeCosts(int[] candidatesIn, int from, int to, IntSolution sol, double[] deltas) {
+		super.evaluateExchangeCosts(candidatesIn, from, to, sol, deltas);
+		negate(deltas, (to - from) * sol.size());
+	}
+
+	/**
+	 * Negates the first positions of a buffer of cost variations.
+	 * 
+	 * @param deltas
+	 *            the buffer of cost variations.
+	 * @param length
+	 *            the number of positions to be negated.
+	 */
+	private static void negate(double[] deltas, int length) {
+		for (int k = 0; k < length; k++) {
+			deltas[k] = -deltas[k];
+		}
+	}
+
 }
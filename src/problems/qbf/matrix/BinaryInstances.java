@@ -0,0 +1,461 @@
+package problems.qbf.matrix;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A compact binary format for QBF instances, meant to be mapped into memory
+ * instead of parsed. A file is a header of {@value #HEADER_BYTES} bytes
+ * followed by the payload, everything in little-endian order:
+ *
+ * <pre>
+ *  0  int   magic "QBFB"
+ *  4  int   version
+ *  8  int   n, the dimension of the matrix
+ * 12  byte  dtype of the coefficients (see {@link Dtype})
+ * 13  byte  layout of the payload (see {@link Layout})
+ * 16  long  number of nonzero coefficients of the upper triangle
+ * 24  long  number of bytes of the payload
+ * 32  long  CRC32 of the payload
+ * </pre>
+ *
+ * The remaining bytes of the header are zero. Instances of dense layout are
+ * read straight from the mapped payload by a {@link MappedMatrix}; instances
+ * of sparse layout are copied into a {@link SparseMatrix}, still without any
+ * parsing. The checksum is not verified when an instance is opened, since
+ * that would read the whole file, but by {@link #verify(String)}.
+ *
+ * Usage: BinaryInstances [text instance] [binary instance] [dense|sparse]
+ * [float64|int32], or BinaryInstances verify [binary instance]. By default
+ * the layout is chosen from the density as in {@link CoefficientMatrices},
+ * and the coefficients are stored as int32 if all of them are integers.
+ */
+public class BinaryInstances {
+
+	/**
+	 * The type of the coefficients.
+	 */
+	public enum Dtype {
+
+		FLOAT64(1, 8), INT32(2, 4);
+
+		final int code, width;
+
+		Dtype(int code, int width) {
+			this.code = code;
+			this.width = width;
+		}
+
+		static Dtype of(int code) throws IOException {
+			for (Dtype dtype : values()) {
+				if (dtype.code == code)
+					return dtype;
+			}
+			throw new IOException("Unknown dtype " + code);
+		}
+
+	}
+
+	/**
+	 * The layout of the payload.
+	 */
+	public enum Layout {
+
+		/**
+		 * the n(n+1)/2 coefficients of the upper triangle, row by row: row i
+		 * holds a_{ii}, ..., a_{i,n-1}.
+		 */
+		DENSE(1),
+
+		/**
+		 * the nonzero coefficients of the upper triangle in CSR form: n+1 int
+		 * row offsets, then an int column per coefficient, zero padding up to
+		 * a multiple of 8 bytes, and the value of each coefficient.
+		 */
+		SPARSE(2);
+
+		final int code;
+
+		Layout(int code) {
+			this.code = code;
+		}
+
+		static Layout of(int code) throws IOException {
+			for (Layout layout : values()) {
+				if (layout.code == code)
+					return layout;
+			}
+			throw new IOException("Unknown layout " + code);
+		}
+
+	}
+
+	/**
+	 * The fields of the header of an instance.
+	 */
+	static class Header {
+
+		int n;
+		Dtype dtype;
+		Layout layout;
+		long nonZeros;
+		long payloadBytes;
+		long checksum;
+
+	}
+
+	/**
+	 * The first bytes of every binary instance, "QBFB" in ASCII.
+	 */
+	public static final int MAGIC = 0x42464251;
+
+	public static final int VERSION = 1;
+
+	public static final int HEADER_BYTES = 64;
+
+	/**
+	 * the largest number of bytes read through a single mapping.
+	 */
+	private static final int CHUNK_BYTES = 1 << 30;
+
+	private BinaryInstances() {
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length == 2 && args[0].equals("verify")) {
+			boolean ok = verify(args[1]);
+			System.out.println(args[1] + ": " + (ok ? "checksum OK" : "checksum MISMATCH"));
+			System.exit(ok ? 0 : 1);
+		}
+		if (args.length < 2) {
+			System.out.println("Usage: BinaryInstances <text instance> <binary instance> [dense|sparse] [float64|int32]");
+			System.out.println("       BinaryInstances verify <binary instance>");
+			System.exit(2);
+		}
+
+		Layout layout = (args.length > 2) ? Layout.valueOf(args[2].toUpperCase()) : null;
+		Dtype dtype = (args.length > 3) ? Dtype.valueOf(args[3].toUpperCase()) : null;
+		long startTime = System.nanoTime();
+		convert(args[0], args[1], layout, dtype);
+		System.out.println(args[0] + " -> " + args[1] + " in " + (System.nanoTime() - startTime) / 1e9 + " s");
+
+	}
+
+	/**
+	 * Converts an instance from the text format of the instances directory
+	 * to the binary format.
+	 *
+	 * @param textFile
+	 *            Name of the file containing the text instance.
+	 * @param binaryFile
+	 *            Name of the file receiving the binary instance.
+	 * @param layout
+	 *            the layout of the payload, or null to choose it from the
+	 *            density of the instance.
+	 * @param dtype
+	 *            the type of the coefficients, or null for int32 if every
+	 *            coefficient is an integer and float64 otherwise.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static void convert(String textFile, String binaryFile, Layout layout, Dtype dtype) throws IOException {
+		UpperTriangle triangle = CoefficientMatrices.readUpperTriangle(textFile);
+		if (layout == null)
+			layout = (triangle.density() <= CoefficientMatrices.SPARSE_DENSITY) ? Layout.SPARSE : Layout.DENSE;
+		if (dtype == null)
+			dtype = triangle.integral(Integer.MIN_VALUE, Integer.MAX_VALUE) ? Dtype.INT32 : Dtype.FLOAT64;
+		write(triangle, binaryFile, layout, dtype);
+	}
+
+	/**
+	 * Tells whether a file is a binary instance, by its first bytes.
+	 *
+	 * @param filename
+	 *            Name of the file.
+	 * @return true if the file starts with {@link #MAGIC}.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static boolean isBinary(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+			}
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Opens a binary instance, mapping its coefficients if the layout is
+	 * dense.
+	 *
+	 * @param filename
+	 *            Name of the file containing the binary instance.
+	 * @param format
+	 *            the format of the matrix: {@link CoefficientMatrices.Format#AUTO}
+	 *            keeps the layout of the file.
+	 * @return The matrix of coefficients.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static CoefficientMatrix open(String filename, CoefficientMatrices.Format format) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			Header header = readHeader(channel);
+			if (format == CoefficientMatrices.Format.AUTO)
+				format = (header.layout == Layout.DENSE) ? CoefficientMatrices.Format.MAPPED
+						: CoefficientMatrices.Format.SPARSE;
+			if (format == CoefficientMatrices.Format.MAPPED) {
+				if (header.layout != Layout.DENSE)
+					throw new IllegalArgumentException("Only instances of dense layout can be mapped: " + filename);
+				return new MappedMatrix(channel, HEADER_BYTES, header.n, header.dtype, header.nonZeros);
+			}
+			return CoefficientMatrices.build(readUpperTriangle(channel, header), format);
+		}
+	}
+
+	/**
+	 * Verifies the checksum of a binary instance.
+	 *
+	 * @param filename
+	 *            Name of the file containing the binary instance.
+	 * @return true if the CRC32 of the payload matches the header.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static boolean verify(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			Header header = readHeader(channel);
+			CRC32 crc = new CRC32();
+			for (long done = 0; done < header.payloadBytes; done += CHUNK_BYTES) {
+				long length = Math.min(CHUNK_BYTES, header.payloadBytes - done);
+				crc.update(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + done, length));
+			}
+			return crc.getValue() == header.checksum;
+		}
+	}
+
+	/**
+	 * Writes the coefficients of an upper triangle as a binary instance.
+	 */
+	static void write(UpperTriangle triangle, String filename, Layout layout, Dtype dtype) throws IOException {
+
+		Path path = Paths.get(filename);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			PayloadWriter out = new PayloadWriter(channel, dtype);
+			int n = triangle.n;
+			if (layout == Layout.DENSE) {
+				for (int i = 0; i < n; i++) {
+					int p = triangle.offsets[i], end = triangle.offsets[i + 1];
+					for (int j = i; j < n; j++) {
+						boolean stored = p < end && triangle.columns[p] == j;
+						out.putValue(stored ? triangle.values[p++] : 0.0);
+					}
+				}
+			} else {
+				for (int i = 0; i <= n; i++) {
+					out.putInt(triangle.offsets[i]);
+				}
+				for (int p = 0; p < triangle.nonZeros(); p++) {
+					out.putInt(triangle.columns[p]);
+				}
+				out.align(8);
+				for (int p = 0; p < triangle.nonZeros(); p++) {
+					out.putValue(triangle.values[p]);
+				}
+			}
+			out.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(0, MAGIC);
+			header.putInt(4, VERSION);
+			header.putInt(8, n);
+			header.put(12, (byte) dtype.code);
+			header.put(13, (byte) layout.code);
+			header.putLong(16, triangle.nonZeros());
+			header.putLong(24, out.bytes);
+			header.putLong(32, out.crc.getValue());
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		}
+
+	}
+
+	/**
+	 * Reads and validates the header of a binary instance.
+	 */
+	static Header readHeader(FileChannel channel) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+		}
+		if (buffer.hasRemaining() || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a binary QBF instance");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Unsupported binary instance version " + buffer.getInt(4));
+
+		Header header = new Header();
+		header.n = buffer.getInt(8);
+		header.dtype = Dtype.of(buffer.get(12));
+		header.layout = Layout.of(buffer.get(13));
+		header.nonZeros = buffer.getLong(16);
+		header.payloadBytes = buffer.getLong(24);
+		header.checksum = buffer.getLong(32);
+
+		long expected;
+		if (header.layout == Layout.DENSE) {
+			expected = (long) header.n * (header.n + 1) / 2 * header.dtype.width;
+		} else {
+			long indexBytes = 4L * (header.n + 1) + 4L * header.nonZeros;
+			expected = (indexBytes + 7) / 8 * 8 + header.nonZeros * header.dtype.width;
+		}
+		if (header.n < 0 || header.payloadBytes != expected)
+			throw new IOException("Inconsistent binary instance header: n=" + header.n + ", payload="
+					+ header.payloadBytes + " bytes, expected " + expected);
+		if (channel.size() < HEADER_BYTES + header.payloadBytes)
+			throw new IOException("Truncated binary instance: " + channel.size() + " bytes, expected "
+					+ (HEADER_BYTES + header.payloadBytes));
+
+		return header;
+	}
+
+	/**
+	 * Reads the nonzero coefficients of a binary instance.
+	 */
+	static UpperTriangle readUpperTriangle(FileChannel channel, Header header) throws IOException {
+
+		int n = header.n;
+		if (header.layout == Layout.DENSE) {
+			MappedMatrix mapped = new MappedMatrix(channel, HEADER_BYTES, n, header.dtype, header.nonZeros);
+			UpperTriangle triangle = new UpperTriangle(n);
+			for (int i = 0; i < n; i++) {
+				for (int j = i; j < n; j++) {
+					triangle.add(i, j, mapped.get(i, j));
+				}
+			}
+			triangle.finish();
+			return triangle;
+		}
+
+		if (header.nonZeros > Integer.MAX_VALUE - 8)
+			throw new IOException("Too many nonzero coefficients: " + header.nonZeros);
+		int count = (int) header.nonZeros;
+		int[] offsets = new int[n + 1];
+		int[] columns = new int[count];
+		double[] values = new double[count];
+
+		long position = HEADER_BYTES;
+		readInts(channel, position, offsets);
+		position += 4L * (n + 1);
+		readInts(channel, position, columns);
+		/* the checksum is not verified on open, so the structure is checked here */
+		if (offsets[0] != 0 || offsets[n] != count)
+			throw new IOException("Inconsistent row offsets in binary instance");
+		for (int i = 0; i < n; i++) {
+			if (offsets[i] > offsets[i + 1])
+				throw new IOException("Decreasing row offsets in binary instance at row " + i);
+		}
+		for (int i = 0; i < n; i++) {
+			for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+				if (columns[p] < i || columns[p] >= n || (p > offsets[i] && columns[p] <= columns[p - 1]))
+					throw new IOException("Invalid column " + columns[p] + " in row " + i + " of binary instance");
+			}
+		}
+		position = HEADER_BYTES + (4L * (n + 1) + 4L * count + 7) / 8 * 8;
+		if (header.dtype == Dtype.FLOAT64) {
+			for (int done = 0; done < count;) {
+				int length = Math.min(CHUNK_BYTES / 8, count - done);
+				map(channel, position + 8L * done, 8L * length).asDoubleBuffer().get(values, done, length);
+				done += length;
+			}
+		} else {
+			int[] ints = new int[count];
+			readInts(channel, position, ints);
+			for (int p = 0; p < count; p++) {
+				values[p] = ints[p];
+			}
+		}
+		return new UpperTriangle(n, offsets, columns, values);
+	}
+
+	private static void readInts(FileChannel channel, long position, int[] dest) throws IOException {
+		for (int done = 0; done < dest.length;) {
+			int length = Math.min(CHUNK_BYTES / 4, dest.length - done);
+			map(channel, position + 4L * done, 4L * length).asIntBuffer().get(dest, done, length);
+			done += length;
+		}
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	/**
+	 * Writes the payload through a buffer, computing its checksum.
+	 */
+	private static class PayloadWriter {
+
+		private final FileChannel channel;
+		private final Dtype dtype;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+		final CRC32 crc = new CRC32();
+		long bytes = 0;
+
+		PayloadWriter(FileChannel channel, Dtype dtype) throws IOException {
+			this.channel = channel;
+			this.dtype = dtype;
+			channel.position(HEADER_BYTES);
+		}
+
+		void putInt(int value) throws IOException {
+			if (buffer.remaining() < 4)
+				flush();
+			buffer.putInt(value);
+		}
+
+		void putValue(double value) throws IOException {
+			if (buffer.remaining() < 8)
+				flush();
+			if (dtype == Dtype.FLOAT64) {
+				buffer.putDouble(value);
+			} else {
+				int integer = (int) value;
+				if (integer != value)
+					throw new IllegalArgumentException("Coefficient " + value + " is not a 32-bit integer");
+				buffer.putInt(integer);
+			}
+		}
+
+		void align(int alignment) throws IOException {
+			while ((bytes + buffer.position()) % alignment != 0) {
+				if (!buffer.hasRemaining())
+					flush();
+				buffer.put((byte) 0);
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			crc.update(buffer.duplicate());
+			bytes += buffer.remaining();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+	}
+
+}
@@ -0,0 +1,169 @@
+package problems.qbf.matrix;
+
+import java.io.IOException;
+
+/**
+ * Reads the matrices of coefficients of QBF instances. The format of an
+ * instance is described in instances/README: the dimension n followed by the
+ * upper triangle of the matrix, row by row. The nonzero coefficients are
+ * gathered first, and the matrix holding them is chosen afterwards from the
+ * measured density, so a sparse instance never goes through a dense matrix.
+ * Text instances may be compressed with gzip.
+ * Binary instances (see {@link BinaryInstances}) are recognized by their
+ * header and opened without parsing.
+ */
+public class CoefficientMatrices {
+
+	/**
+	 * The way a matrix is stored.
+	 */
+	public enum Format {
+
+		/**
+		 * sparse if the density is at most {@link #SPARSE_DENSITY} or the
+		 * matrix does not fit in an array; otherwise integer if every
+		 * coefficient is an int, so the costs are exact, and symmetric if not.
+		 * Binary instances keep the layout of the file.
+		 */
+		AUTO,
+
+		/**
+		 * a {@link DenseMatrix}.
+		 */
+		DENSE,
+
+		/**
+		 * a {@link SparseMatrix}.
+		 */
+		SPARSE,
+
+		/**
+		 * a {@link SymmetricMatrix}, which keeps B = A + A' and scans a row
+		 * for every contribution.
+		 */
+		SYMMETRIC,
+
+		/**
+		 * a {@link SymmetricMatrix} whose rows are scanned by the kernels of
+		 * the Vector API, or by the scalar ones if it is not available (see
+		 * {@link RowKernels#vector()}).
+		 */
+		VECTOR,
+
+		/**
+		 * a {@link ShortMatrix} if every coefficient is an integer in the
+		 * range of a short, and an {@link IntMatrix} if it is in the range of
+		 * an int. Instances with other coefficients cannot be stored this way.
+		 */
+		INTEGER,
+
+		/**
+		 * a {@link FloatMatrix}, which rounds the coefficients to floats.
+		 */
+		FLOAT32,
+
+		/**
+		 * a {@link PackedMatrix}, which keeps only the upper triangle, in
+		 * half the memory of a dense matrix.
+		 */
+		PACKED,
+
+		/**
+		 * a {@link MappedMatrix}, for binary instances of dense layout.
+		 */
+		MAPPED
+
+	}
+
+	/**
+	 * The largest fraction of nonzero coefficients in the upper triangle for
+	 * which the sparse format is chosen automatically.
+	 */
+	public static final double SPARSE_DENSITY = 0.25;
+
+	/**
+	 * The system property giving the format of the matrices read without an
+	 * explicit one, e.g. -Dqbf.format=vector for the solvers to use the
+	 * kernels of the Vector API. It is {@link Format#AUTO} if not set.
+	 */
+	public static final String FORMAT_PROPERTY = "qbf.format";
+
+	private CoefficientMatrices() {
+	}
+
+	/**
+	 * Reads a matrix of coefficients in the format given by
+	 * {@link #FORMAT_PROPERTY}, automatically chosen by default.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @return The matrix of coefficients.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static CoefficientMatrix read(String filename) throws IOException {
+		String format = System.getProperty(FORMAT_PROPERTY);
+		return read(filename, (format == null) ? Format.AUTO : Format.valueOf(format.toUpperCase()));
+	}
+
+	/**
+	 * Reads a matrix of coefficients in a given format.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance.
+	 * @param format
+	 *            the format of the matrix.
+	 * @return The matrix of coefficients.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public static CoefficientMatrix read(String filename, Format format) throws IOException {
+		if (BinaryInstances.isBinary(filename))
+			return BinaryInstances.open(filename, format);
+		if (format == Format.MAPPED)
+			throw new IllegalArgumentException("Only binary instances can be mapped: " + filename);
+		return build(readUpperTriangle(filename), format);
+	}
+
+	/**
+	 * Stores the coefficients of an upper triangle in a given format.
+	 */
+	static CoefficientMatrix build(UpperTriangle triangle, Format format) {
+		if (format == Format.AUTO) {
+			boolean sparse = triangle.density() <= SPARSE_DENSITY || !DenseMatrix.fits(triangle.n);
+			if (sparse)
+				format = Format.SPARSE;
+			else if (triangle.integral(Integer.MIN_VALUE, Integer.MAX_VALUE))
+				format = Format.INTEGER;
+			else
+				format = Format.SYMMETRIC;
+		}
+		if (format == Format.SPARSE)
+			return new SparseMatrix(triangle);
+		if (format == Format.SYMMETRIC)
+			return new SymmetricMatrix(triangle);
+		if (format == Format.VECTOR)
+			return new SymmetricMatrix(triangle, RowKernels.vector());
+		if (format == Format.PACKED)
+			return new PackedMatrix(triangle);
+		if (format == Format.INTEGER) {
+			if (triangle.integral(Short.MIN_VALUE, Short.MAX_VALUE))
+				return new ShortMatrix(triangle);
+			return new IntMatrix(triangle);
+		}
+		if (format == Format.FLOAT32)
+			return new FloatMatrix(triangle);
+		if (format == Format.MAPPED)
+			throw new IllegalArgumentException("Only binary instances can be mapped");
+		return new DenseMatrix(triangle);
+	}
+
+	/**
+	 * Reads the nonzero coefficients of a text instance (see
+	 * {@link TextInstances}).
+	 */
+	static UpperTriangle readUpperTriangle(String filename) throws IOException {
+		return TextInstances.read(filename);
+	}
+
+}
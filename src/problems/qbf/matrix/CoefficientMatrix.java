@@ -0,0 +1,116 @@
+package problems.qbf.matrix;
+
+/**
+ * The matrix A of coefficients of a QBF f(x) = x'.A.x, as given by an
+ * instance: upper triangular, i.e., a_{ij} = 0 for i > j. Besides reading
+ * single coefficients, a matrix provides the kernels the QBF is evaluated
+ * with, all of them in terms of the diagonal a_{ii} and of the interactions
+ * a_{ij} + a_{ji} between two distinct variables, so each implementation may
+ * store and traverse the coefficients in the way that suits it.
+ *
+ * The kernels of every implementation add the same terms in the same order
+ * (increasing index of the other variable), skipping only terms that are
+ * zero, so that all of them give the same results.
+ */
+public interface CoefficientMatrix {
+
+	/**
+	 * Gives the dimension of the matrix.
+	 *
+	 * @return the number of variables of the QBF.
+	 */
+	public abstract int size();
+
+	/**
+	 * Gives a coefficient of the matrix.
+	 *
+	 * @param i
+	 *            the row of the coefficient.
+	 * @param j
+	 *            the column of the coefficient.
+	 * @return the coefficient a_{ij}.
+	 */
+	public abstract double get(int i, int j);
+
+	/**
+	 * Gives the coefficient of the square of a variable.
+	 *
+	 * @param i
+	 *            the index of the variable.
+	 * @return the coefficient a_{ii}.
+	 */
+	public abstract double diagonal(int i);
+
+	/**
+	 * Gives the interaction between two distinct variables.
+	 *
+	 * @param i
+	 *            the index of a variable.
+	 * @param j
+	 *            the index of another variable.
+	 * @return the sum a_{ij} + a_{ji}.
+	 */
+	public abstract double interaction(int i, int j);
+
+	/**
+	 * Gives the interactions between a variable and several other ones.
+	 *
+	 * @param i
+	 *            the index of the variable.
+	 * @param others
+	 *            the indices of the other variables, none of them equal to i.
+	 * @param count
+	 *            the number of indices read from others.
+	 * @param out
+	 *            the array receiving a_{i,others[k]} + a_{others[k],i} at
+	 *            position offset + k.
+	 * @param offset
+	 *            the position of out receiving the first interaction.
+	 */
+	public abstract void interactions(int i, int[] others, int count, double[] out, int offset);
+
+	/**
+	 * Evaluates the QBF at a point: x'.A.x .
+	 *
+	 * @param x
+	 *            the values of the variables, each one 0 or 1.
+	 * @return the value of the QBF.
+	 */
+	public abstract double evaluate(double[] x);
+
+	/**
+	 * Gives the cost variation of setting a variable to 1 when the other
+	 * variables are given by a point, i.e., a_{ii} + \sum_{j != i} x_j *
+	 * (a_{ij} + a_{ji}).
+	 *
+	 * @param i
+	 *            the index of the variable.
+	 * @param x
+	 *            the values of the variables, each one 0 or 1.
+	 * @return the contribution of the variable.
+	 */
+	public abstract double contribution(int i, double[] x);
+
+	/**
+	 * Adds the interactions of a variable, scaled by a factor, to the
+	 * contributions of all other variables: gains[i] += factor * (a_{ik} +
+	 * a_{ki}) for every i != k.
+	 *
+	 * @param k
+	 *            the index of the variable.
+	 * @param factor
+	 *            the factor scaling the interactions.
+	 * @param gains
+	 *            the contributions being updated.
+	 */
+	public abstract void addInteractions(int k, double factor, double[] gains);
+
+	/**
+	 * Gives the number of nonzero coefficients of the upper triangle,
+	 * including the diagonal.
+	 *
+	 * @return the number of nonzero coefficients.
+	 */
+	public abstract long nonZeros();
+
+}
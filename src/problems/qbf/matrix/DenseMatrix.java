@@ -0,0 +1,152 @@
+package problems.qbf.matrix;
+
+/**
+ * A matrix of coefficients stored in a single row-major array of n*n
+ * entries, a_{ij} being kept at {@code a[i*n + j]}. The lower triangle is
+ * kept as zeros, so every kernel is a plain loop over rows and columns.
+ */
+public class DenseMatrix implements CoefficientMatrix {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the coefficients, in row-major order.
+	 */
+	private final double[] a;
+
+	/**
+	 * Creates a matrix from its coefficients.
+	 *
+	 * @param n
+	 *            the dimension of the matrix.
+	 * @param a
+	 *            the n*n coefficients in row-major order, which are not
+	 *            copied.
+	 */
+	public DenseMatrix(int n, double[] a) {
+		if (a.length != (long) n * n)
+			throw new IllegalArgumentException("Expected " + ((long) n * n) + " coefficients, got " + a.length);
+		this.n = n;
+		this.a = a;
+	}
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle.
+	 */
+	DenseMatrix(UpperTriangle upper) {
+		this(upper.n, new double[checkedSquare(upper.n)]);
+		for (int i = 0; i < n; i++) {
+			for (int p = upper.offsets[i]; p < upper.offsets[i + 1]; p++) {
+				a[i * n + upper.columns[p]] = upper.values[p];
+			}
+		}
+	}
+
+	/**
+	 * Tells whether a dense matrix of a given dimension fits in a Java array.
+	 *
+	 * @param n
+	 *            the dimension of the matrix.
+	 * @return true if the n*n coefficients fit in an array.
+	 */
+	public static boolean fits(int n) {
+		return (long) n * n <= Integer.MAX_VALUE - 8;
+	}
+
+	private static int checkedSquare(int n) {
+		if (!fits(n))
+			throw new IllegalArgumentException("A dense matrix of dimension " + n + " does not fit in an array");
+		return n * n;
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		return a[i * n + j];
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return a[i * n + i];
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		return a[i * n + j] + a[j * n + i];
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		int row = i * n;
+		for (int k = 0; k < count; k++) {
+			int j = others[k];
+			out[offset + k] = a[row + j] + a[j * n + i];
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		double sum = 0.0;
+
+		for (int i = 0, row = 0; i < n; i++, row += n) {
+			if (x[i] == 0)
+				continue;
+			double aux = 0.0;
+			for (int j = 0; j < n; j++) {
+				aux += x[j] * a[row + j];
+			}
+			sum += aux * x[i];
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+
+		double sum = 0.0;
+		int row = i * n;
+
+		for (int j = 0; j < i; j++) {
+			sum += x[j] * (a[row + j] + a[j * n + i]);
+		}
+		for (int j = i + 1; j < n; j++) {
+			sum += x[j] * (a[row + j] + a[j * n + i]);
+		}
+		sum += a[row + i];
+
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+
+		int row = k * n;
+
+		for (int i = 0; i < k; i++) {
+			gains[i] += factor * (a[row + i] + a[i * n + k]);
+		}
+		for (int i = k + 1; i < n; i++) {
+			gains[i] += factor * (a[row + i] + a[i * n + k]);
+		}
+	}
+
+	@Override
+	public long nonZeros() {
+		long count = 0;
+		for (double value : a) {
+			if (value != 0)
+				count++;
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,144 @@
+package problems.qbf.matrix;
+
+/**
+ * A matrix of coefficients rounded to floats, stored as a
+ * {@link SymmetricMatrix} is but in half of its memory, for huge instances
+ * whose kernels are bound by memory. The terms are added in doubles, so the
+ * results are exact for integer coefficients of magnitude up to 2^24, which
+ * floats represent exactly, and otherwise carry the rounding of the
+ * coefficients. It is never chosen automatically.
+ */
+public class FloatMatrix implements CoefficientMatrix {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the interactions, in row-major order, with zeros in the diagonal.
+	 */
+	private final float[] b;
+
+	/**
+	 * the diagonal of A.
+	 */
+	private final float[] diagonal;
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle,
+	 * rounded to floats.
+	 */
+	FloatMatrix(UpperTriangle upper) {
+		if (!DenseMatrix.fits(upper.n))
+			throw new IllegalArgumentException("A dense matrix of dimension " + upper.n + " does not fit in an array");
+		n = upper.n;
+		b = new float[n * n];
+		diagonal = new float[n];
+		for (int i = 0; i < n; i++) {
+			for (int p = upper.offsets[i]; p < upper.offsets[i + 1]; p++) {
+				int j = upper.columns[p];
+				float value = (float) upper.values[p];
+				if (j == i) {
+					diagonal[i] = value;
+				} else {
+					b[i * n + j] = value;
+					b[j * n + i] = value;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		if (i == j)
+			return diagonal[i];
+		return (i < j) ? b[i * n + j] : 0.0;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return diagonal[i];
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		return b[i * n + j];
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		int row = i * n;
+		for (int k = 0; k < count; k++) {
+			out[offset + k] = b[row + others[k]];
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		double sum = 0.0;
+
+		for (int i = 0, row = 0; i < n; i++, row += n) {
+			if (x[i] == 0)
+				continue;
+			double aux = 0.0;
+			aux += x[i] * diagonal[i];
+			aux += dot(row + i + 1, x, i + 1, n);
+			sum += aux * x[i];
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		int row = i * n;
+		return dot(row, x, 0, i) + dot(row + i + 1, x, i + 1, n) + diagonal[i];
+	}
+
+	/**
+	 * Gives the dot product of x[from, to) with the coefficients of b from
+	 * position start on.
+	 */
+	private double dot(int start, double[] x, int from, int to) {
+		double sum = 0.0;
+		for (int j = from, p = start; j < to; j++, p++) {
+			sum += x[j] * b[p];
+		}
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+
+		int row = k * n;
+
+		for (int i = 0; i < k; i++) {
+			gains[i] += factor * b[row + i];
+		}
+		for (int i = k + 1; i < n; i++) {
+			gains[i] += factor * b[row + i];
+		}
+	}
+
+	@Override
+	public long nonZeros() {
+		long count = 0;
+		for (int i = 0; i < n; i++) {
+			if (diagonal[i] != 0)
+				count++;
+			for (int j = i + 1; j < n; j++) {
+				if (b[i * n + j] != 0)
+					count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,269 @@
+package problems.qbf.matrix;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+import problems.qbfpt.triples.ForbiddenTriplesGenerator;
+
+/**
+ * A deterministic generator of random QBF instances. Each coefficient of the
+ * upper triangle is nonzero with a given probability, and the nonzero ones
+ * are integers drawn uniformly from a range, zero excluded. The nonzero
+ * positions are drawn by geometric skips over the upper triangle in row-major
+ * order, so generating an instance costs time proportional to its nonzero
+ * coefficients, and the same seed gives the same instance in every format.
+ *
+ * An instance is written in the text format of the instances directory,
+ * compressed with gzip if the file name ends in ".gz", or in the binary
+ * format of {@link BinaryInstances} if it ends in ".qbfb". A QBF-PT instance
+ * is a QBF instance whose forbidden triples follow the rules of
+ * {@link ForbiddenTriplesGenerator}, which depend only on n; they are written
+ * to a file of the same name ending in ".triples".
+ *
+ * Usage: InstanceGenerator [output] [n] [density] [min] [max] [seed]
+ * [qbf|qbfpt], with density 1, coefficients in [-10, 10] and seed n by
+ * default.
+ */
+public class InstanceGenerator {
+
+	/**
+	 * Receives the nonzero coefficients of an instance, in row-major order.
+	 */
+	private interface Sink {
+
+		public abstract void accept(int i, int j, int value) throws IOException;
+
+	}
+
+	/**
+	 * the dimension of the instances.
+	 */
+	private final int n;
+
+	/**
+	 * the probability of a coefficient being nonzero.
+	 */
+	private final double density;
+
+	/**
+	 * the range of the nonzero coefficients.
+	 */
+	private final int min, max;
+
+	private final long seed;
+
+	/**
+	 * Creates a generator of instances.
+	 *
+	 * @param n
+	 *            the dimension of the instances.
+	 * @param density
+	 *            the probability of a coefficient being nonzero, in (0, 1].
+	 * @param min
+	 *            the smallest coefficient.
+	 * @param max
+	 *            the largest coefficient, which together with min must allow
+	 *            a nonzero coefficient.
+	 * @param seed
+	 *            the seed of the random numbers.
+	 */
+	public InstanceGenerator(int n, double density, int min, int max, long seed) {
+		if (n < 1)
+			throw new IllegalArgumentException("Invalid dimension " + n);
+		if (!(density > 0 && density <= 1))
+			throw new IllegalArgumentException("Invalid density " + density);
+		if (min > max || (min == 0 && max == 0))
+			throw new IllegalArgumentException("Invalid range of coefficients [" + min + ", " + max + "]");
+		this.n = n;
+		this.density = density;
+		this.min = min;
+		this.max = max;
+		this.seed = seed;
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 2) {
+			System.out.println("Usage: InstanceGenerator <output> <n> [density] [min] [max] [seed] [qbf|qbfpt]");
+			System.exit(2);
+		}
+
+		int n = Integer.parseInt(args[1]);
+		double density = (args.length > 2) ? Double.parseDouble(args[2]) : 1.0;
+		int min = (args.length > 3) ? Integer.parseInt(args[3]) : -10;
+		int max = (args.length > 4) ? Integer.parseInt(args[4]) : 10;
+		long seed = (args.length > 5) ? Long.parseLong(args[5]) : n;
+		boolean triples = (args.length > 6) && args[6].equals("qbfpt");
+
+		long startTime = System.nanoTime();
+		new InstanceGenerator(n, density, min, max, seed).write(args[0]);
+		if (triples)
+			new ForbiddenTriplesGenerator(n).write(args[0] + ".triples");
+		System.out.println(args[0] + " generated in " + (System.nanoTime() - startTime) / 1e9 + " s");
+
+	}
+
+	/**
+	 * Writes an instance, in the format given by the name of the file.
+	 *
+	 * @param filename
+	 *            Name of the file receiving the instance.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	public void write(String filename) throws IOException {
+		if (filename.endsWith(".qbfb")) {
+			UpperTriangle triangle = triangle();
+			boolean sparse = triangle.density() <= CoefficientMatrices.SPARSE_DENSITY;
+			BinaryInstances.write(triangle, filename, sparse ? BinaryInstances.Layout.SPARSE
+					: BinaryInstances.Layout.DENSE, BinaryInstances.Dtype.INT32);
+		} else {
+			writeText(filename);
+		}
+	}
+
+	private UpperTriangle triangle() throws IOException {
+		long expected = (long) Math.ceil(1.05 * density * ((double) n * (n + 1) / 2));
+		UpperTriangle triangle = new UpperTriangle(n, (int) Math.min(Integer.MAX_VALUE - 8, expected + (1 << 10)));
+		generate(triangle::add);
+		triangle.finish();
+		return triangle;
+	}
+
+	/**
+	 * Writes an instance in the text format, row by row, so only a row is
+	 * held in memory.
+	 */
+	private void writeText(String filename) throws IOException {
+
+		OutputStream file = new FileOutputStream(filename);
+		if (filename.endsWith(".gz"))
+			file = new GZIPOutputStream(file, 1 << 16);
+
+		try (TextWriter out = new TextWriter(new BufferedOutputStream(file, 1 << 16))) {
+			out.putInt(n);
+			out.put('\n');
+
+			int[] row = new int[n];
+			int[] current = { 0 };
+			generate((i, j, value) -> {
+				while (current[0] < i) {
+					out.putRow(row, current[0]++, n);
+				}
+				row[j] = value;
+			});
+			while (current[0] < n) {
+				out.putRow(row, current[0]++, n);
+			}
+		}
+
+	}
+
+	/**
+	 * Draws the nonzero coefficients of the instance, in row-major order.
+	 */
+	private void generate(Sink sink) throws IOException {
+
+		SplittableRandom rng = new SplittableRandom(seed);
+		double logComplement = Math.log1p(-density);
+		long total = (long) n * (n + 1) / 2;
+
+		/* position is the index of a coefficient in the upper triangle */
+		long position = -1, rowEnd = n;
+		int i = 0;
+		while (true) {
+			long skip = (density < 1) ? (long) (Math.log(1.0 - rng.nextDouble()) / logComplement) : 0;
+			if (skip >= total - position - 1)
+				break;
+			position += skip + 1;
+			while (position >= rowEnd) {
+				i++;
+				rowEnd += n - i;
+			}
+			int j = (int) (n - (rowEnd - position));
+			sink.accept(i, j, coefficient(rng));
+		}
+
+	}
+
+	/**
+	 * Draws a nonzero coefficient in [min, max].
+	 */
+	private int coefficient(SplittableRandom rng) {
+		long range = (long) max - min + 1;
+		while (true) {
+			int value = (int) (min + rng.nextLong(range));
+			if (value != 0)
+				return value;
+		}
+	}
+
+	/**
+	 * Writes the text of an instance through a buffer of bytes.
+	 */
+	private static class TextWriter implements AutoCloseable {
+
+		private final OutputStream out;
+		private final byte[] buffer = new byte[1 << 16];
+		private final byte[] digits = new byte[11];
+		private int length = 0;
+
+		TextWriter(OutputStream out) {
+			this.out = out;
+		}
+
+		void put(char c) throws IOException {
+			if (length == buffer.length)
+				flush();
+			buffer[length++] = (byte) c;
+		}
+
+		void putInt(int value) throws IOException {
+			if (value == 0) {
+				put('0');
+				return;
+			}
+			long v = Math.abs((long) value);
+			int count = 0;
+			while (v > 0) {
+				digits[count++] = (byte) ('0' + v % 10);
+				v /= 10;
+			}
+			if (value < 0)
+				put('-');
+			while (count > 0) {
+				put((char) digits[--count]);
+			}
+		}
+
+		/**
+		 * Writes row i of the upper triangle, and clears it in the array.
+		 */
+		void putRow(int[] row, int i, int n) throws IOException {
+			for (int j = i; j < n; j++) {
+				if (j > i)
+					put(' ');
+				putInt(row[j]);
+				row[j] = 0;
+			}
+			put('\n');
+		}
+
+		private void flush() throws IOException {
+			out.write(buffer, 0, length);
+			length = 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+			out.close();
+		}
+
+	}
+
+}
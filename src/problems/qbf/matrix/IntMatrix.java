@@ -0,0 +1,142 @@
+package problems.qbf.matrix;
+
+/**
+ * A matrix of integer coefficients, stored as a {@link SymmetricMatrix} is
+ * but in ints, in half of its memory. The kernels add the terms in long
+ * accumulators, so every value they give is exact, and the same as the one
+ * computed in doubles by the other formats, whose sums of integers are exact
+ * as well while they stay below 2^53.
+ */
+public class IntMatrix implements CoefficientMatrix {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the interactions, in row-major order, with zeros in the diagonal.
+	 */
+	private final int[] b;
+
+	/**
+	 * the diagonal of A.
+	 */
+	private final int[] diagonal;
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle, every
+	 * one of them an int.
+	 */
+	IntMatrix(UpperTriangle upper) {
+		if (!DenseMatrix.fits(upper.n))
+			throw new IllegalArgumentException("A dense matrix of dimension " + upper.n + " does not fit in an array");
+		if (!upper.integral(Integer.MIN_VALUE, Integer.MAX_VALUE))
+			throw new IllegalArgumentException("The coefficients are not all ints");
+		n = upper.n;
+		b = new int[n * n];
+		diagonal = new int[n];
+		for (int i = 0; i < n; i++) {
+			for (int p = upper.offsets[i]; p < upper.offsets[i + 1]; p++) {
+				int j = upper.columns[p];
+				int value = (int) upper.values[p];
+				if (j == i) {
+					diagonal[i] = value;
+				} else {
+					b[i * n + j] = value;
+					b[j * n + i] = value;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		if (i == j)
+			return diagonal[i];
+		return (i < j) ? b[i * n + j] : 0.0;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return diagonal[i];
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		return b[i * n + j];
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		int row = i * n;
+		for (int k = 0; k < count; k++) {
+			out[offset + k] = b[row + others[k]];
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		long sum = 0;
+
+		for (int i = 0, row = 0; i < n; i++, row += n) {
+			if (x[i] == 0)
+				continue;
+			sum += diagonal[i] + dot(row + i + 1, x, i + 1, n);
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		int row = i * n;
+		return dot(row, x, 0, i) + dot(row + i + 1, x, i + 1, n) + diagonal[i];
+	}
+
+	/**
+	 * Sums the coefficients of b from position start on that meet the
+	 * variables set in x[from, to).
+	 */
+	private long dot(int start, double[] x, int from, int to) {
+		long sum = 0;
+		for (int j = from, p = start; j < to; j++, p++) {
+			sum += (int) x[j] * b[p];
+		}
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+
+		int row = k * n;
+
+		for (int i = 0; i < k; i++) {
+			gains[i] += factor * b[row + i];
+		}
+		for (int i = k + 1; i < n; i++) {
+			gains[i] += factor * b[row + i];
+		}
+	}
+
+	@Override
+	public long nonZeros() {
+		long count = 0;
+		for (int i = 0; i < n; i++) {
+			if (diagonal[i] != 0)
+				count++;
+			for (int j = i + 1; j < n; j++) {
+				if (b[i * n + j] != 0)
+					count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,221 @@
+package problems.qbf.matrix;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A matrix of coefficients read straight from a binary instance mapped into
+ * memory (see {@link BinaryInstances}), whose payload is the upper triangle
+ * stored row by row: row i holds a_{ii}, ..., a_{i,n-1}. Nothing is parsed or
+ * copied into the heap, so opening an instance costs only the mapping, and
+ * instances run side by side share the pages of the file.
+ *
+ * A mapping cannot exceed 2GB, so the rows are split into segments of whole
+ * rows, each one mapped separately.
+ */
+public class MappedMatrix implements CoefficientMatrix {
+
+	/**
+	 * the largest number of bytes of a segment.
+	 */
+	private static final long SEGMENT_BYTES = 1L << 30;
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the number of nonzero coefficients, as recorded in the header.
+	 */
+	private final long nonZeros;
+
+	/**
+	 * the segments of the coefficients, as doubles or as ints depending on
+	 * the type of the instance; the other array is null.
+	 */
+	private final DoubleBuffer[] doubles;
+	private final IntBuffer[] ints;
+
+	/**
+	 * the segment holding row i, and the position of a_{ii} in it.
+	 */
+	private final int[] rowSegment, rowStart;
+
+	/**
+	 * Maps the payload of a binary instance of dense layout.
+	 *
+	 * @param channel
+	 *            the channel of the instance file, which may be closed after
+	 *            the construction.
+	 * @param position
+	 *            the position of the payload in the file.
+	 * @param n
+	 *            the dimension of the matrix.
+	 * @param dtype
+	 *            the type of the coefficients.
+	 * @param nonZeros
+	 *            the number of nonzero coefficients.
+	 * @throws IOException
+	 *             Necessary for I/O operations.
+	 */
+	MappedMatrix(FileChannel channel, long position, int n, BinaryInstances.Dtype dtype, long nonZeros)
+			throws IOException {
+
+		this.n = n;
+		this.nonZeros = nonZeros;
+		rowSegment = new int[n];
+		rowStart = new int[n];
+
+		List<DoubleBuffer> doubleSegments = new ArrayList<>();
+		List<IntBuffer> intSegments = new ArrayList<>();
+		int width = dtype.width;
+		int row = 0;
+		while (row < n) {
+			/* the rows of this segment are [row, end) */
+			long elements = 0;
+			int end = row;
+			while (end < n && (elements + (n - end)) * width <= SEGMENT_BYTES) {
+				rowSegment[end] = doubleSegments.size() + intSegments.size();
+				rowStart[end] = (int) elements;
+				elements += n - end;
+				end++;
+			}
+			if (end == row)
+				throw new IllegalArgumentException("Row " + row + " does not fit in a segment");
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, elements * width);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (dtype == BinaryInstances.Dtype.FLOAT64)
+				doubleSegments.add(buffer.asDoubleBuffer());
+			else
+				intSegments.add(buffer.asIntBuffer());
+			position += elements * width;
+			row = end;
+		}
+
+		doubles = (dtype == BinaryInstances.Dtype.FLOAT64) ? doubleSegments.toArray(new DoubleBuffer[0]) : null;
+		ints = (dtype == BinaryInstances.Dtype.FLOAT64) ? null : intSegments.toArray(new IntBuffer[0]);
+	}
+
+	/**
+	 * Reads a coefficient of a segment.
+	 */
+	private double at(int segment, int index) {
+		return (doubles != null) ? doubles[segment].get(index) : ints[segment].get(index);
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		if (i > j)
+			return 0.0;
+		return at(rowSegment[i], rowStart[i] + (j - i));
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return at(rowSegment[i], rowStart[i]);
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		return (i < j) ? get(i, j) : get(j, i);
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		for (int k = 0; k < count; k++) {
+			out[offset + k] = interaction(i, others[k]);
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		double sum = 0.0;
+
+		for (int i = 0; i < n; i++) {
+			if (x[i] == 0)
+				continue;
+			int segment = rowSegment[i], base = rowStart[i] - i;
+			double aux = 0.0;
+			if (doubles != null) {
+				DoubleBuffer row = doubles[segment];
+				for (int j = i; j < n; j++) {
+					aux += x[j] * row.get(base + j);
+				}
+			} else {
+				IntBuffer row = ints[segment];
+				for (int j = i; j < n; j++) {
+					aux += x[j] * row.get(base + j);
+				}
+			}
+			sum += aux * x[i];
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+
+		double sum = 0.0;
+		int segment = rowSegment[i], base = rowStart[i] - i;
+
+		for (int j = 0; j < i; j++) {
+			sum += x[j] * get(j, i);
+		}
+		if (doubles != null) {
+			DoubleBuffer row = doubles[segment];
+			for (int j = i + 1; j < n; j++) {
+				sum += x[j] * row.get(base + j);
+			}
+		} else {
+			IntBuffer row = ints[segment];
+			for (int j = i + 1; j < n; j++) {
+				sum += x[j] * row.get(base + j);
+			}
+		}
+		sum += at(segment, base + i);
+
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+
+		int segment = rowSegment[k], base = rowStart[k] - k;
+
+		for (int i = 0; i < k; i++) {
+			gains[i] += factor * get(i, k);
+		}
+		if (doubles != null) {
+			DoubleBuffer row = doubles[segment];
+			for (int i = k + 1; i < n; i++) {
+				gains[i] += factor * row.get(base + i);
+			}
+		} else {
+			IntBuffer row = ints[segment];
+			for (int i = k + 1; i < n; i++) {
+				gains[i] += factor * row.get(base + i);
+			}
+		}
+	}
+
+	@Override
+	public long nonZeros() {
+		return nonZeros;
+	}
+
+}
@@ -0,0 +1,147 @@
+package problems.qbf.matrix;
+
+/**
+ * A matrix of coefficients stored as its packed upper triangle, row by row:
+ * row i holds a_{ii}, ..., a_{i,n-1}, so the matrix takes n(n+1)/2 entries,
+ * about half of a {@link DenseMatrix} or a {@link SymmetricMatrix}. Since A is
+ * upper triangular, this is also the upper triangle of B = A + A'.
+ *
+ * The whole function is evaluated by contiguous row scans, but the
+ * interactions of a variable with the variables before it lie in a column,
+ * read with a stride that shrinks along the way, so this format suits
+ * evaluations of the whole function more than the move kernels. It is the
+ * heap counterpart of a {@link MappedMatrix}, and gives the same results as
+ * the other formats.
+ */
+public class PackedMatrix implements CoefficientMatrix {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the packed upper triangle.
+	 */
+	private final double[] p;
+
+	/**
+	 * the position of a_{ii} in the packed upper triangle.
+	 */
+	private final int[] rowStart;
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle.
+	 */
+	PackedMatrix(UpperTriangle upper) {
+		if (!fits(upper.n))
+			throw new IllegalArgumentException("A packed matrix of dimension " + upper.n + " does not fit in an array");
+		n = upper.n;
+		p = new double[n * (n + 1) / 2];
+		rowStart = new int[n];
+		for (int i = 0, start = 0; i < n; start += n - i, i++) {
+			rowStart[i] = start;
+			for (int k = upper.offsets[i]; k < upper.offsets[i + 1]; k++) {
+				p[start + upper.columns[k] - i] = upper.values[k];
+			}
+		}
+	}
+
+	/**
+	 * Tells whether a packed matrix of a given dimension fits in a Java array.
+	 *
+	 * @param n
+	 *            the dimension of the matrix.
+	 * @return true if the n(n+1)/2 coefficients fit in an array.
+	 */
+	public static boolean fits(int n) {
+		return (long) n * (n + 1) / 2 <= Integer.MAX_VALUE - 8;
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		return (i <= j) ? p[rowStart[i] + j - i] : 0.0;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return p[rowStart[i]];
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		return (i < j) ? p[rowStart[i] + j - i] : p[rowStart[j] + i - j];
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		for (int k = 0; k < count; k++) {
+			out[offset + k] = interaction(i, others[k]);
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		double sum = 0.0;
+
+		for (int i = 0; i < n; i++) {
+			if (x[i] == 0)
+				continue;
+			int base = rowStart[i] - i;
+			double aux = 0.0;
+			for (int j = i; j < n; j++) {
+				aux += x[j] * p[base + j];
+			}
+			sum += aux * x[i];
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+
+		double sum = 0.0;
+		int base = rowStart[i] - i;
+
+		for (int j = 0; j < i; j++) {
+			sum += x[j] * p[rowStart[j] + i - j];
+		}
+		for (int j = i + 1; j < n; j++) {
+			sum += x[j] * p[base + j];
+		}
+		sum += p[rowStart[i]];
+
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+
+		int base = rowStart[k] - k;
+
+		for (int i = 0; i < k; i++) {
+			gains[i] += factor * p[rowStart[i] + k - i];
+		}
+		for (int i = k + 1; i < n; i++) {
+			gains[i] += factor * p[base + i];
+		}
+	}
+
+	@Override
+	public long nonZeros() {
+		long count = 0;
+		for (double value : p) {
+			if (value != 0)
+				count++;
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,92 @@
+package problems.qbf.matrix;
+
+/**
+ * The loops over a contiguous row of coefficients that the kernels of a
+ * {@link SymmetricMatrix} are made of: a dot product with the variables and
+ * a scaled addition to the gains. The scalar implementation adds the terms
+ * one at a time, in order; the one built on the incubating Vector API (the
+ * vector source folder, class {@value #VECTOR_CLASS}) adds them lane by lane.
+ * The Vector API needs the module jdk.incubator.vector, given to the JVM by
+ * {@code --add-modules jdk.incubator.vector}; without it {@link #vector()}
+ * falls back to the scalar implementation.
+ *
+ * Reordering the terms of a dot product may change its last bits, unless
+ * every partial sum is exact, as it is for instances of integer
+ * coefficients. The scaled additions give the same results either way.
+ */
+public interface RowKernels {
+
+	/**
+	 * the name of the class of the vector implementation.
+	 */
+	public static final String VECTOR_CLASS = "problems.qbf.matrix.vector.VectorRowKernels";
+
+	/**
+	 * Adds the dot product of two ranges of arrays to a value.
+	 *
+	 * @param a
+	 *            the coefficients.
+	 * @param aFrom
+	 *            the position of the first coefficient.
+	 * @param x
+	 *            the variables.
+	 * @param xFrom
+	 *            the position of the first variable.
+	 * @param length
+	 *            the number of terms.
+	 * @param initial
+	 *            the value the terms are added to.
+	 * @return initial + \sum_k a[aFrom + k] * x[xFrom + k].
+	 */
+	public abstract double dot(double[] a, int aFrom, double[] x, int xFrom, int length, double initial);
+
+	/**
+	 * Adds a range of coefficients, scaled by a factor, to a range of an
+	 * array: y[yFrom + k] += factor * a[aFrom + k].
+	 *
+	 * @param factor
+	 *            the factor scaling the coefficients.
+	 * @param a
+	 *            the coefficients.
+	 * @param aFrom
+	 *            the position of the first coefficient.
+	 * @param y
+	 *            the array being updated.
+	 * @param yFrom
+	 *            the position of the first value updated.
+	 * @param length
+	 *            the number of values updated.
+	 */
+	public abstract void addScaled(double factor, double[] a, int aFrom, double[] y, int yFrom, int length);
+
+	/**
+	 * Gives a short name of the implementation.
+	 *
+	 * @return the name.
+	 */
+	public abstract String name();
+
+	/**
+	 * Gives the scalar implementation.
+	 *
+	 * @return the kernels adding one term at a time.
+	 */
+	public static RowKernels scalar() {
+		return ScalarRowKernels.INSTANCE;
+	}
+
+	/**
+	 * Gives the vector implementation if the Vector API is available, and
+	 * the scalar one otherwise.
+	 *
+	 * @return the fastest kernels available.
+	 */
+	public static RowKernels vector() {
+		try {
+			return (RowKernels) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return scalar();
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+package problems.qbf.matrix;
+
+/**
+ * The scalar row loops, adding one term at a time in increasing order of
+ * position, as the other kernels of the matrices do.
+ */
+class ScalarRowKernels implements RowKernels {
+
+	static final ScalarRowKernels INSTANCE = new ScalarRowKernels();
+
+	private ScalarRowKernels() {
+	}
+
+	@Override
+	public double dot(double[] a, int aFrom, double[] x, int xFrom, int length, double initial) {
+		double sum = initial;
+		for (int k = 0; k < length; k++) {
+			sum += x[xFrom + k] * a[aFrom + k];
+		}
+		return sum;
+	}
+
+	@Override
+	public void addScaled(double factor, double[] a, int aFrom, double[] y, int yFrom, int length) {
+		for (int k = 0; k < length; k++) {
+			y[yFrom + k] += factor * a[aFrom + k];
+		}
+	}
+
+	@Override
+	public String name() {
+		return "scalar";
+	}
+
+}
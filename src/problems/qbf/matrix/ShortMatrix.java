@@ -0,0 +1,141 @@
+package problems.qbf.matrix;
+
+/**
+ * A matrix of integer coefficients in the range of a short, stored as an
+ * {@link IntMatrix} is but in shorts, in a quarter of the memory of a
+ * {@link SymmetricMatrix}. The kernels add the terms in long accumulators, so
+ * every value they give is exact.
+ */
+public class ShortMatrix implements CoefficientMatrix {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the interactions, in row-major order, with zeros in the diagonal.
+	 */
+	private final short[] b;
+
+	/**
+	 * the diagonal of A.
+	 */
+	private final short[] diagonal;
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle, every
+	 * one of them a short.
+	 */
+	ShortMatrix(UpperTriangle upper) {
+		if (!DenseMatrix.fits(upper.n))
+			throw new IllegalArgumentException("A dense matrix of dimension " + upper.n + " does not fit in an array");
+		if (!upper.integral(Short.MIN_VALUE, Short.MAX_VALUE))
+			throw new IllegalArgumentException("The coefficients are not all shorts");
+		n = upper.n;
+		b = new short[n * n];
+		diagonal = new short[n];
+		for (int i = 0; i < n; i++) {
+			for (int p = upper.offsets[i]; p < upper.offsets[i + 1]; p++) {
+				int j = upper.columns[p];
+				short value = (short) upper.values[p];
+				if (j == i) {
+					diagonal[i] = value;
+				} else {
+					b[i * n + j] = value;
+					b[j * n + i] = value;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		if (i == j)
+			return diagonal[i];
+		return (i < j) ? b[i * n + j] : 0.0;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return diagonal[i];
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		return b[i * n + j];
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		int row = i * n;
+		for (int k = 0; k < count; k++) {
+			out[offset + k] = b[row + others[k]];
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		long sum = 0;
+
+		for (int i = 0, row = 0; i < n; i++, row += n) {
+			if (x[i] == 0)
+				continue;
+			sum += diagonal[i] + dot(row + i + 1, x, i + 1, n);
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+		int row = i * n;
+		return dot(row, x, 0, i) + dot(row + i + 1, x, i + 1, n) + diagonal[i];
+	}
+
+	/**
+	 * Sums the coefficients of b from position start on that meet the
+	 * variables set in x[from, to).
+	 */
+	private long dot(int start, double[] x, int from, int to) {
+		long sum = 0;
+		for (int j = from, p = start; j < to; j++, p++) {
+			sum += (int) x[j] * b[p];
+		}
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+
+		int row = k * n;
+
+		for (int i = 0; i < k; i++) {
+			gains[i] += factor * b[row + i];
+		}
+		for (int i = k + 1; i < n; i++) {
+			gains[i] += factor * b[row + i];
+		}
+	}
+
+	@Override
+	public long nonZeros() {
+		long count = 0;
+		for (int i = 0; i < n; i++) {
+			if (diagonal[i] != 0)
+				count++;
+			for (int j = i + 1; j < n; j++) {
+				if (b[i * n + j] != 0)
+					count++;
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,194 @@
+package problems.qbf.matrix;
+
+/**
+ * A matrix of coefficients stored in compressed sparse row (CSR) form and
+ * symmetrized: row i holds every variable j != i with a nonzero interaction
+ * a_{ij} + a_{ji}, in increasing order of j, so the neighbors of a variable
+ * are contiguous whether they come before or after it. The diagonal is kept
+ * apart. Memory and the time of the kernels grow with the number of nonzero
+ * coefficients instead of with n^2.
+ */
+public class SparseMatrix implements CoefficientMatrix {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the coefficients a_{ii}.
+	 */
+	private final double[] diagonal;
+
+	/**
+	 * the neighbors of variable i are at positions [offsets[i],
+	 * offsets[i+1]), and those after i start at position upper[i].
+	 */
+	private final int[] offsets, upper;
+
+	/**
+	 * the index of each neighbor and its interaction a_{ij} + a_{ji}.
+	 */
+	private final int[] columns;
+	private final double[] values;
+
+	/**
+	 * the number of nonzero coefficients of the upper triangle.
+	 */
+	private final long nonZeros;
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle.
+	 */
+	SparseMatrix(UpperTriangle triangle) {
+
+		n = triangle.n;
+		nonZeros = triangle.nonZeros();
+		diagonal = new double[n];
+		offsets = new int[n + 1];
+		upper = new int[n];
+
+		int[] degree = new int[n];
+		long entries = 0;
+		for (int i = 0; i < n; i++) {
+			for (int p = triangle.offsets[i]; p < triangle.offsets[i + 1]; p++) {
+				int j = triangle.columns[p];
+				if (j == i) {
+					diagonal[i] = triangle.values[p];
+				} else {
+					degree[i]++;
+					degree[j]++;
+					entries += 2;
+				}
+			}
+		}
+		if (entries > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Too many nonzero coefficients for a sparse matrix: " + entries);
+
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + degree[i];
+		}
+		columns = new int[(int) entries];
+		values = new double[(int) entries];
+
+		/*
+		 * Rows are filled in increasing order of i: row r first receives the
+		 * transposed coefficients a_{ir}, i < r, and then its own a_{rj}, j > r,
+		 * so every row ends up sorted.
+		 */
+		int[] next = offsets.clone();
+		for (int i = 0; i < n; i++) {
+			upper[i] = next[i];
+			for (int p = triangle.offsets[i]; p < triangle.offsets[i + 1]; p++) {
+				int j = triangle.columns[p];
+				if (j == i)
+					continue;
+				double value = triangle.values[p];
+				columns[next[i]] = j;
+				values[next[i]++] = value;
+				columns[next[j]] = i;
+				values[next[j]++] = value;
+			}
+		}
+
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		if (i == j)
+			return diagonal[i];
+		if (i > j)
+			return 0.0;
+		return interaction(i, j);
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return diagonal[i];
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		int p = find(i, j);
+		return (p < 0) ? 0.0 : values[p];
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		for (int k = 0; k < count; k++) {
+			int p = find(i, others[k]);
+			out[offset + k] = (p < 0) ? 0.0 : values[p];
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		double sum = 0.0;
+
+		for (int i = 0; i < n; i++) {
+			if (x[i] == 0)
+				continue;
+			double aux = x[i] * diagonal[i];
+			for (int p = upper[i], end = offsets[i + 1]; p < end; p++) {
+				aux += x[columns[p]] * values[p];
+			}
+			sum += aux * x[i];
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+
+		double sum = 0.0;
+
+		for (int p = offsets[i], end = offsets[i + 1]; p < end; p++) {
+			sum += x[columns[p]] * values[p];
+		}
+		sum += diagonal[i];
+
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+		for (int p = offsets[k], end = offsets[k + 1]; p < end; p++) {
+			gains[columns[p]] += factor * values[p];
+		}
+	}
+
+	@Override
+	public long nonZeros() {
+		return nonZeros;
+	}
+
+	/**
+	 * Finds the position of a neighbor in the row of a variable by binary
+	 * search.
+	 *
+	 * @return the position of j in row i, or a negative value if the
+	 *         interaction between i and j is zero.
+	 */
+	private int find(int i, int j) {
+		int low = offsets[i], high = offsets[i + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int column = columns[mid];
+			if (column < j)
+				low = mid + 1;
+			else if (column > j)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+}
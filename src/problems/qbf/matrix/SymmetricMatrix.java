@@ -0,0 +1,153 @@
+package problems.qbf.matrix;
+
+/**
+ * A matrix of coefficients stored as the symmetrized matrix B = A + A', with
+ * the diagonal split out: b_{ij} = a_{ij} + a_{ji} is kept at both
+ * {@code b[i*n + j]} and {@code b[j*n + i]}, and a_{ii} in a separate array,
+ * leaving b_{ii} = 0. The interactions of a variable with all others are then
+ * a single contiguous row, so contributions and their updates are one row
+ * scan each, instead of a row scan plus a column walk with a stride of n as in
+ * a {@link DenseMatrix}.
+ *
+ * Since A is upper triangular, b_{ij} = a_{ij} for i < j, and the scalar
+ * row scans add the same terms in the same order as a {@link DenseMatrix}, so
+ * both give bit-identical results. The rows may also be scanned by the
+ * kernels of the Vector API (see {@link RowKernels}).
+ */
+public class SymmetricMatrix implements CoefficientMatrix {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	private final int n;
+
+	/**
+	 * the interactions, in row-major order, with zeros in the diagonal.
+	 */
+	private final double[] b;
+
+	/**
+	 * the diagonal of A.
+	 */
+	private final double[] diagonal;
+
+	/**
+	 * the loops scanning the rows.
+	 */
+	private final RowKernels kernels;
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle, whose
+	 * rows are scanned by the scalar kernels.
+	 */
+	SymmetricMatrix(UpperTriangle upper) {
+		this(upper, RowKernels.scalar());
+	}
+
+	/**
+	 * Creates a matrix holding the coefficients of an upper triangle, whose
+	 * rows are scanned by given kernels.
+	 */
+	SymmetricMatrix(UpperTriangle upper, RowKernels kernels) {
+		this.kernels = kernels;
+		if (!DenseMatrix.fits(upper.n))
+			throw new IllegalArgumentException("A dense matrix of dimension " + upper.n + " does not fit in an array");
+		n = upper.n;
+		b = new double[n * n];
+		diagonal = new double[n];
+		for (int i = 0; i < n; i++) {
+			for (int p = upper.offsets[i]; p < upper.offsets[i + 1]; p++) {
+				int j = upper.columns[p];
+				if (j == i) {
+					diagonal[i] = upper.values[p];
+				} else {
+					b[i * n + j] = upper.values[p];
+					b[j * n + i] = upper.values[p];
+				}
+			}
+		}
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public double get(int i, int j) {
+		if (i == j)
+			return diagonal[i];
+		return (i < j) ? b[i * n + j] : 0.0;
+	}
+
+	@Override
+	public double diagonal(int i) {
+		return diagonal[i];
+	}
+
+	@Override
+	public double interaction(int i, int j) {
+		return b[i * n + j];
+	}
+
+	@Override
+	public void interactions(int i, int[] others, int count, double[] out, int offset) {
+		int row = i * n;
+		for (int k = 0; k < count; k++) {
+			out[offset + k] = b[row + others[k]];
+		}
+	}
+
+	@Override
+	public double evaluate(double[] x) {
+
+		double sum = 0.0;
+
+		for (int i = 0, row = 0; i < n; i++, row += n) {
+			if (x[i] == 0)
+				continue;
+			double aux = 0.0;
+			aux += x[i] * diagonal[i];
+			aux = kernels.dot(b, row + i + 1, x, i + 1, n - i - 1, aux);
+			sum += aux * x[i];
+		}
+
+		return sum;
+	}
+
+	@Override
+	public double contribution(int i, double[] x) {
+
+		int row = i * n;
+
+		double sum = kernels.dot(b, row, x, 0, i, 0.0);
+		sum = kernels.dot(b, row + i + 1, x, i + 1, n - i - 1, sum);
+		sum += diagonal[i];
+
+		return sum;
+	}
+
+	@Override
+	public void addInteractions(int k, double factor, double[] gains) {
+
+		int row = k * n;
+
+		kernels.addScaled(factor, b, row, gains, 0, k);
+		kernels.addScaled(factor, b, row + k + 1, gains, k + 1, n - k - 1);
+	}
+
+	@Override
+	public long nonZeros() {
+		long count = 0;
+		for (int i = 0; i < n; i++) {
+			if (diagonal[i] != 0)
+				count++;
+			for (int j = i + 1; j < n; j++) {
+				if (b[i * n + j] != 0)
+					count++;
+			}
+		}
+		return count;
+	}
+
+}
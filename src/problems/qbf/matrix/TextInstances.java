@@ -0,0 +1,401 @@
+package problems.qbf.matrix;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A parser of QBF instances in the text format of the instances directory,
+ * plain or compressed with gzip. The file is streamed in chunks of
+ * {@value #CHUNK_BYTES} bytes cut at whitespace, and the chunks are parsed in
+ * parallel into arrays of doubles, without creating an object per token.
+ * Since row i of the upper triangle holds exactly n - i coefficients, the
+ * position of a coefficient in the file gives its row and its column, so the
+ * parsed chunks are appended in order to the {@link UpperTriangle} while the
+ * next ones are read and parsed.
+ *
+ * Integers and decimals of up to 18 significant digits are converted
+ * directly, with correct rounding; any other number, with more digits or a
+ * large exponent, goes through {@link Double#parseDouble(String)}.
+ */
+class TextInstances {
+
+	/**
+	 * the number of bytes of a chunk.
+	 */
+	static final int CHUNK_BYTES = 1 << 20;
+
+	/**
+	 * the powers of ten exactly representable as doubles.
+	 */
+	private static final double[] POWERS_OF_TEN = new double[23];
+
+	static {
+		POWERS_OF_TEN[0] = 1.0;
+		for (int k = 1; k < POWERS_OF_TEN.length; k++) {
+			POWERS_OF_TEN[k] = POWERS_OF_TEN[k - 1] * 10.0;
+		}
+	}
+
+	private TextInstances() {
+	}
+
+	/**
+	 * Reads the nonzero coefficients of a text instance, using a thread per
+	 * available processor.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance, which may be
+	 *            compressed with gzip.
+	 * @return The nonzero coefficients of the instance.
+	 * @throws IOException
+	 *             Necessary for I/O operations, and when the instance is
+	 *             malformed.
+	 */
+	static UpperTriangle read(String filename) throws IOException {
+		return read(filename, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Reads the nonzero coefficients of a text instance.
+	 *
+	 * @param filename
+	 *            Name of the file containing the instance, which may be
+	 *            compressed with gzip.
+	 * @param threads
+	 *            the number of chunks parsed at the same time.
+	 * @return The nonzero coefficients of the instance.
+	 * @throws IOException
+	 *             Necessary for I/O operations, and when the instance is
+	 *             malformed.
+	 */
+	static UpperTriangle read(String filename, int threads) throws IOException {
+
+		ExecutorService pool = (threads > 1) ? Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "qbf-parser");
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+
+		try (InputStream in = open(filename)) {
+			ChunkReader reader = new ChunkReader(in);
+			Assembler assembler = new Assembler(filename);
+
+			/* while a batch is parsed, the next one is read into other chunks */
+			List<Chunk> parsing = new ArrayList<>(), reading = new ArrayList<>();
+			for (int k = 0; k < Math.max(threads, 1); k++) {
+				parsing.add(new Chunk());
+				reading.add(new Chunk());
+			}
+
+			int parsed = reader.fill(parsing);
+			List<Future<?>> futures = submit(pool, parsing, parsed);
+			while (parsed > 0) {
+				int read = reader.fill(reading);
+				await(futures);
+				for (int k = 0; k < parsed; k++) {
+					assembler.append(parsing.get(k));
+				}
+				List<Chunk> swap = parsing;
+				parsing = reading;
+				reading = swap;
+				parsed = read;
+				futures = submit(pool, parsing, parsed);
+			}
+
+			return assembler.finish();
+		} finally {
+			if (pool != null)
+				pool.shutdownNow();
+		}
+
+	}
+
+	/**
+	 * Opens an instance, decompressing it if it starts with the gzip magic
+	 * number.
+	 */
+	private static InputStream open(String filename) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(filename), 1 << 16);
+		in.mark(2);
+		int first = in.read(), second = in.read();
+		in.reset();
+		if (first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >>> 8))
+			return new GZIPInputStream(in, 1 << 16);
+		return in;
+	}
+
+	/**
+	 * Parses the first chunks of a batch, in the pool if there is one and in
+	 * the calling thread otherwise.
+	 */
+	private static List<Future<?>> submit(ExecutorService pool, List<Chunk> chunks, int count) throws IOException {
+		List<Future<?>> futures = new ArrayList<>();
+		for (int k = 0; k < count; k++) {
+			Chunk chunk = chunks.get(k);
+			if (pool != null)
+				futures.add(pool.submit(() -> {
+					chunk.parse();
+					return null;
+				}));
+			else
+				chunk.parse();
+		}
+		return futures;
+	}
+
+	private static void await(List<Future<?>> futures) throws IOException {
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+	}
+
+	/**
+	 * A chunk of the file, holding whole tokens, and the numbers parsed from
+	 * it.
+	 */
+	private static class Chunk {
+
+		final byte[] bytes = new byte[CHUNK_BYTES];
+		int length;
+
+		/**
+		 * the numbers of the chunk, in order.
+		 */
+		double[] values = new double[CHUNK_BYTES / 8];
+		int count;
+
+		void parse() throws IOException {
+			count = 0;
+			int p = 0;
+			while (p < length) {
+				if (isWhitespace(bytes[p])) {
+					p++;
+					continue;
+				}
+				int end = p + 1;
+				while (end < length && !isWhitespace(bytes[end])) {
+					end++;
+				}
+				if (count == values.length)
+					values = Arrays.copyOf(values, 2 * count);
+				values[count++] = parseNumber(bytes, p, end);
+				p = end;
+			}
+		}
+
+	}
+
+	/**
+	 * Parses the number in bytes [start, end).
+	 */
+	static double parseNumber(byte[] bytes, int start, int end) throws IOException {
+
+		int p = start;
+		boolean negative = false;
+		if (bytes[p] == '-' || bytes[p] == '+') {
+			negative = bytes[p] == '-';
+			p++;
+		}
+
+		long mantissa = 0;
+		int digits = 0, significant = 0, scale = 0;
+		boolean point = false;
+		for (; p < end; p++) {
+			byte b = bytes[p];
+			if (b >= '0' && b <= '9') {
+				digits++;
+				if (mantissa != 0 || b != '0')
+					significant++;
+				mantissa = mantissa * 10 + (b - '0');
+				if (point)
+					scale++;
+			} else if (b == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+
+		int exponent = 0;
+		if (p < end && (bytes[p] == 'e' || bytes[p] == 'E') && digits > 0) {
+			p++;
+			boolean negativeExponent = false;
+			if (p < end && (bytes[p] == '-' || bytes[p] == '+')) {
+				negativeExponent = bytes[p] == '-';
+				p++;
+			}
+			if (p == end)
+				throw malformed(bytes, start, end);
+			for (; p < end && bytes[p] >= '0' && bytes[p] <= '9'; p++) {
+				exponent = Math.min(exponent * 10 + (bytes[p] - '0'), 100000);
+			}
+			if (negativeExponent)
+				exponent = -exponent;
+		}
+		if (p != end || digits == 0)
+			throw malformed(bytes, start, end);
+
+		/*
+		 * a mantissa below 2^53 and a power of ten up to 10^22 are both exact,
+		 * so a single multiplication or division rounds correctly
+		 */
+		int power = exponent - scale;
+		if (significant <= 18 && mantissa < (1L << 53) && power >= -22 && power <= 22) {
+			double value = (power >= 0) ? mantissa * POWERS_OF_TEN[power] : mantissa / POWERS_OF_TEN[-power];
+			return negative ? -value : value;
+		}
+		return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+	}
+
+	private static IOException malformed(byte[] bytes, int start, int end) {
+		String token = new String(bytes, start, Math.min(end - start, 64), StandardCharsets.ISO_8859_1);
+		return new IOException("Malformed number \"" + token + "\"");
+	}
+
+	/**
+	 * Fills chunks from a stream, cutting each one after its last whitespace
+	 * and carrying the partial token that follows to the next chunk.
+	 */
+	private static class ChunkReader {
+
+		private final InputStream in;
+		private byte[] carry = new byte[64];
+		private int carried = 0;
+		private boolean eof = false;
+
+		ChunkReader(InputStream in) {
+			this.in = in;
+		}
+
+		/**
+		 * Fills the chunks in order until the end of the stream, and gives
+		 * how many were filled.
+		 */
+		int fill(List<Chunk> chunks) throws IOException {
+			int filled = 0;
+			while (filled < chunks.size() && (!eof || carried > 0)) {
+				fill(chunks.get(filled++));
+			}
+			return filled;
+		}
+
+		private void fill(Chunk chunk) throws IOException {
+			byte[] bytes = chunk.bytes;
+			System.arraycopy(carry, 0, bytes, 0, carried);
+			int length = carried;
+			carried = 0;
+			while (length < bytes.length && !eof) {
+				int read = in.read(bytes, length, bytes.length - length);
+				if (read < 0)
+					eof = true;
+				else
+					length += read;
+			}
+
+			int cut = length;
+			if (!eof) {
+				while (cut > 0 && !isWhitespace(bytes[cut - 1])) {
+					cut--;
+				}
+				if (cut == 0)
+					throw new IOException("Token longer than " + bytes.length + " bytes");
+				carried = length - cut;
+				if (carry.length < carried)
+					carry = new byte[Math.max(carried, 2 * carry.length)];
+				System.arraycopy(bytes, cut, carry, 0, carried);
+			}
+			chunk.length = cut;
+		}
+
+	}
+
+	/**
+	 * Appends the parsed numbers to an upper triangle: the first one is the
+	 * dimension, and each row i then takes the next n - i numbers.
+	 */
+	private static class Assembler {
+
+		private final String filename;
+		private UpperTriangle triangle;
+		private int n = -1;
+		private int i = 0, j = 0;
+
+		Assembler(String filename) {
+			this.filename = filename;
+		}
+
+		void append(Chunk chunk) throws IOException {
+			double[] values = chunk.values;
+			int k = 0;
+			if (triangle == null && chunk.count > 0) {
+				double dimension = values[k++];
+				if (dimension < 0 || dimension != (int) dimension)
+					throw new IOException("Invalid dimension " + dimension + " in " + filename);
+				n = (int) dimension;
+				triangle = new UpperTriangle(n, capacity(n, values, k, chunk.count));
+			}
+			for (; k < chunk.count; k++) {
+				if (i == n)
+					throw new IOException("More than n(n+1)/2 coefficients in " + filename + ", for n=" + n);
+				triangle.add(i, j, values[k]);
+				if (++j == n) {
+					i++;
+					j = i;
+				}
+			}
+		}
+
+		/**
+		 * Estimates the number of nonzero coefficients from the fraction of
+		 * them among the first ones, to avoid growing the triangle many
+		 * times on large instances.
+		 */
+		private static int capacity(int n, double[] values, int from, int to) {
+			if (from == to)
+				return 1 << 16;
+			int nonZeros = 0;
+			for (int k = from; k < to; k++) {
+				if (values[k] != 0)
+					nonZeros++;
+			}
+			double expected = (double) nonZeros / (to - from) * ((double) n * (n + 1) / 2);
+			return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1 << 16, 1.05 * expected));
+		}
+
+		UpperTriangle finish() throws IOException {
+			if (triangle == null)
+				throw new IOException("Empty instance " + filename);
+			if (i < n)
+				throw new IOException("Truncated instance " + filename + ": row " + i + " has " + (j - i) + " of its "
+						+ (n - i) + " coefficients");
+			triangle.finish();
+			return triangle;
+		}
+
+	}
+
+}
@@ -0,0 +1,120 @@
+package problems.qbf.matrix;
+
+import java.util.Arrays;
+
+/**
+ * The nonzero coefficients of the upper triangle of a matrix, diagonal
+ * included, stored row by row in increasing order of column. It is the form
+ * in which coefficients are gathered while an instance is read, before the
+ * matrix that will hold them is chosen.
+ */
+class UpperTriangle {
+
+	/**
+	 * the dimension of the matrix.
+	 */
+	final int n;
+
+	/**
+	 * the coefficients of row i are at positions [offsets[i], offsets[i+1]).
+	 */
+	final int[] offsets;
+
+	/**
+	 * the column and the value of each coefficient.
+	 */
+	int[] columns;
+	double[] values;
+
+	/**
+	 * the number of coefficients added so far, and the row being filled.
+	 */
+	private int count = 0;
+	private int row = 0;
+
+	UpperTriangle(int n) {
+		this(n, 1 << 16);
+	}
+
+	/**
+	 * Creates an empty upper triangle with room for a number of nonzero
+	 * coefficients, which still grows if more are added.
+	 */
+	UpperTriangle(int n, int capacity) {
+		this.n = n;
+		this.offsets = new int[n + 1];
+		capacity = (int) Math.min(capacity, (long) n * (n + 1) / 2);
+		this.columns = new int[Math.max(capacity, 1)];
+		this.values = new double[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Wraps coefficients already gathered, whose arrays are not copied.
+	 */
+	UpperTriangle(int n, int[] offsets, int[] columns, double[] values) {
+		this.n = n;
+		this.offsets = offsets;
+		this.columns = columns;
+		this.values = values;
+		this.count = offsets[n];
+		this.row = n;
+	}
+
+	/**
+	 * Adds the next coefficient, which must not come before the last one
+	 * added in row-major order. Zero coefficients are not stored.
+	 */
+	void add(int i, int j, double value) {
+		while (row < i) {
+			offsets[++row] = count;
+		}
+		if (value == 0)
+			return;
+		if (count == columns.length) {
+			int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * columns.length);
+			if (capacity == count)
+				throw new IllegalStateException("Too many nonzero coefficients");
+			columns = Arrays.copyOf(columns, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		columns[count] = j;
+		values[count++] = value;
+	}
+
+	/**
+	 * Closes the last rows, after every coefficient was added.
+	 */
+	void finish() {
+		while (row < n) {
+			offsets[++row] = count;
+		}
+	}
+
+	/**
+	 * Gives the number of nonzero coefficients.
+	 */
+	int nonZeros() {
+		return count;
+	}
+
+	/**
+	 * Tells whether every coefficient is an integer in [min, max].
+	 */
+	boolean integral(int min, int max) {
+		for (int p = 0; p < count; p++) {
+			double value = values[p];
+			if (value != Math.rint(value) || value < min || value > max)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gives the fraction of the coefficients of the upper triangle that are
+	 * nonzero.
+	 */
+	double density() {
+		return (n == 0) ? 0.0 : count / ((double) n * (n + 1) / 2);
+	}
+
+}
@@ -0,0 +1,227 @@
+package problems.qbf.solvers;
+
+import java.io.IOException;
+
+import metaheuristics.tabusearch.AbstractIntTS;
+import metaheuristics.tabusearch.AbstractTS;
+import metaheuristics.tabusearch.ExpirationTabuList;
+import metaheuristics.tabusearch.IntCandidateList;
+import problems.qbf.QBF_Inverse;
+import solutions.IntSolution;
+
+/**
+ * The port of {@link TS_QBF} to the primitive framework of
+ * {@link AbstractIntTS}. It scans the same neighborhoods in the same order,
+ * with the same tie-breaking, so given the same seed it finds the same
+ * solutions as {@link TS_QBF} in the same number of iterations. The exchange
+ * neighborhood is scanned sequentially.
+ */
+public class IntTS_QBF extends AbstractIntTS {
+
+	/**
+	 * The number of cost variations held by the buffer of exchange moves.
+	 */
+	private static final int EXCHANGE_BUFFER_SIZE = 1 << 14;
+
+	/**
+	 * Buffers receiving the cost variations of the insertion, removal and
+	 * exchange moves during a neighborhood scan.
+	 */
+	protected final double[] insertionDeltas, removalDeltas;
+	protected double[] exchangeDeltas;
+
+	/**
+	 * The best move found by the last neighborhood scan. A candidate of -1
+	 * means that no element enters (or leaves) the solution.
+	 */
+	protected int bestCandIn, bestCandOut;
+
+	/**
+	 * The cost variation of the best move found by the last neighborhood scan.
+	 */
+	protected double minDeltaCost;
+
+	/**
+	 * Constructor for the IntTS_QBF class, whose objective function is an
+	 * inverse QBF.
+	 *
+	 * @param tenure
+	 *            The Tabu tenure parameter.
+	 * @param iterations
+	 *            The number of iterations which the TS will be executed.
+	 * @param filename
+	 *            Name of the file for which the objective function parameters
+	 *            should be read.
+	 * @throws IOException
+	 *             necessary for I/O operations.
+	 */
+	public IntTS_QBF(int tenure, int iterations, String filename) throws IOException {
+		super(new QBF_Inverse(filename), tenure, iterations);
+		insertionDeltas = new double[ObjFunction.domainSize()];
+		removalDeltas = new double[ObjFunction.domainSize()];
+		exchangeDeltas = new double[EXCHANGE_BUFFER_SIZE];
+	}
+
+	@Override
+	public IntCandidateList makeCL() {
+
+		IntCandidateList _CL = new IntCandidateList(ObjFunction.domainSize());
+		for (int i = 0; i < ObjFunction.domainSize(); i++) {
+			_CL.add(i);
+		}
+
+		return _CL;
+
+	}
+
+	@Override
+	public ExpirationTabuList makeTL() {
+		return new ExpirationTabuList(ObjFunction.domainSize(), tenure);
+	}
+
+	@Override
+	public void updateCL() {
+
+		// do nothing
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The empty solution of a QBF has zero cost.
+	 */
+	@Override
+	public IntSolution createEmptySol() {
+		IntSolution sol = new IntSolution(ObjFunction.domainSize());
+		sol.cost = 0.0;
+		return sol;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The moves are Insertion, Removal and 2-Exchange, as in
+	 * {@link TS_QBF#neighborhoodMove()}.
+	 */
+	@Override
+	public void neighborhoodMove() {
+
+		updateCL();
+		scanNeighborhood(false);
+		applyBestMove();
+
+	}
+
+	/**
+	 * Scans the Insertion, Removal and 2-Exchange neighborhoods of the current
+	 * solution, as {@link TS_QBF#scanNeighborhood(boolean)} does.
+	 *
+	 * @param firstImproving
+	 *            if true, each neighborhood is left as soon as a move better
+	 *            than the best one found so far is found.
+	 */
+	protected void scanNeighborhood(boolean firstImproving) {
+
+		double cost = currentCost;
+		int clSize = CL.size(), solSize = currentSol.size();
+		int[] candidates = CL.elements(), elements = currentSol.elements();
+
+		minDeltaCost = Double.POSITIVE_INFINITY;
+		bestCandIn = -1;
+		bestCandOut = -1;
+		// Evaluate insertions
+		ObjFunction.evaluateInsertionCosts(candidates, clSize, currentSol, insertionDeltas);
+		for (int k = 0; k < clSize; k++) {
+			double deltaCost = insertionDeltas[k];
+			if (deltaCost < minDeltaCost) {
+				int candIn = candidates[k];
+				if (!TL.contains(candIn) || cost + deltaCost < incumbentCost) {
+					minDeltaCost = deltaCost;
+					bestCandIn = candIn;
+					bestCandOut = -1;
+					if (firstImproving)
+						break;
+				}
+			}
+		}
+		// Evaluate removals
+		ObjFunction.evaluateRemovalCosts(currentSol, removalDeltas);
+		for (int j = 0; j < solSize; j++) {
+			double deltaCost = removalDeltas[j];
+			if (deltaCost < minDeltaCost) {
+				int candOut = elements[j];
+				if (!TL.contains(candOut) || cost + deltaCost < incumbentCost) {
+					minDeltaCost = deltaCost;
+					bestCandIn = -1;
+					bestCandOut = candOut;
+					if (firstImproving)
+						break;
+				}
+			}
+		}
+		// Evaluate exchanges, a block of candidates at a time
+		if (solSize == 0)
+			return;
+		if (exchangeDeltas.length < solSize)
+			exchangeDeltas = new double[solSize];
+		int block = exchangeDeltas.length / solSize;
+		for (int blockFrom = 0; blockFrom < clSize; blockFrom += block) {
+			int blockTo = Math.min(clSize, blockFrom + block);
+			ObjFunction.evaluateExchangeCosts(candidates, blockFrom, blockTo, currentSol, exchangeDeltas);
+			for (int k = blockFrom, d = 0; k < blockTo; k++) {
+				int candIn = candidates[k];
+				for (int j = 0; j < solSize; j++, d++) {
+					double deltaCost = exchangeDeltas[d];
+					if (deltaCost < minDeltaCost) {
+						int candOut = elements[j];
+						if ((!TL.contains(candIn) && !TL.contains(candOut)) || cost + deltaCost < incumbentCost) {
+							minDeltaCost = deltaCost;
+							bestCandIn = candIn;
+							bestCandOut = candOut;
+							if (firstImproving)
+								return;
+						}
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Implements the move found by {@link #scanNeighborhood(boolean)} on the
+	 * current solution, updating the Candidate List and the Tabu List.
+	 */
+	protected void applyBestMove() {
+
+		if (bestCandIn >= 0)
+			lastMove = (bestCandOut >= 0) ? AbstractTS.Move.EXCHANGE : AbstractTS.Move.INSERTION;
+		else
+			lastMove = (bestCandOut >= 0) ? AbstractTS.Move.REMOVAL : AbstractTS.Move.NONE;
+
+		if (bestCandOut >= 0) {
+			removeElement(bestCandOut);
+			TL.add(bestCandOut);
+		}
+		if (bestCandIn >= 0) {
+			insertElement(bestCandIn);
+			TL.add(bestCandIn);
+		}
+		TL.nextIteration();
+
+	}
+
+	/**
+	 * A main method used for testing the TS metaheuristic.
+	 *
+	 */
+	public static void main(String[] args) throws IOException {
+		long startTime = System.currentTimeMillis();
+		IntTS_QBF tabusearch = new IntTS_QBF(20, 10000, "instances/qbf020");
+		IntSolution bestSol = tabusearch.solve();
+		System.out.println("maxVal = " + bestSol);
+		long endTime   = System.currentTimeMillis();
+		long totalTime = endTime - startTime;
+		System.out.println("Time = "+ (double) totalTime / (double) 1000 + " seconds");
+	}
+}
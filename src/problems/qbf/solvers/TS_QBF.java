@@ -1,11 +1,14 @@
 package problems.qbf.solvers;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import metaheuristics.tabusearch.AbstractTS;
+import metaheuristics.tabusearch.ExpirationTabuList;
 import problems.qbf.QBF_Inverse;
+import solutions.IntSolution;
 import solutions.Solution;
 
 /**
@@ -18,7 +21,46 @@ import solutions.Solution;
  */
 public class TS_QBF extends AbstractTS<Integer> {
 	
-	public final Integer fake = -1;
+	/**
+	 * The number of cost variations held by the buffer of exchange moves.
+	 */
+	private static final int EXCHANGE_BUFFER_SIZE = 1 << 14;
+
+	/**
+	 * Buffers receiving the cost variations of the insertion, removal and
+	 * exchange moves during a neighborhood scan.
+	 */
+	protected final double[] insertionDeltas, removalDeltas;
+	protected double[] exchangeDeltas;
+
+	/**
+	 * The smallest number of exchange moves for which the neighborhood is
+	 * scanned in parallel, and the number of moves scanned by each task.
+	 */
+	private static final long PARALLEL_THRESHOLD = 1 << 15;
+	private static final int PARALLEL_GRAIN = 1 << 12;
+
+	/**
+	 * The pool evaluating the exchange neighborhood in parallel, or null if it
+	 * is evaluated sequentially.
+	 */
+	private ForkJoinPool exchangePool;
+
+	/**
+	 * The buffers of the exchange cost variations used by each worker.
+	 */
+	private final ThreadLocal<double[]> workerDeltas = ThreadLocal.withInitial(() -> new double[EXCHANGE_BUFFER_SIZE]);
+
+	/**
+	 * The best move found by the last neighborhood scan. A null candidate
+	 * means that no element enters (or leaves) the solution.
+	 */
+	protected Integer bestCandIn, bestCandOut;
+
+	/**
+	 * The cost variation of the best move found by the last neighborhood scan.
+	 */
+	protected double minDeltaCost;
 
 	/**
 	 * Constructor for the TS_QBF class. An inverse QBF objective function is
@@ -36,6 +78,9 @@ public class TS_QBF extends AbstractTS<Integer> {
 	 */
 	public TS_QBF(Integer tenure, Integer iterations, String filename) throws IOException {
 		super(new QBF_Inverse(filename), tenure, iterations);
+		insertionDeltas = new double[ObjFunction.getDomainSize()];
+		removalDeltas = new double[ObjFunction.getDomainSize()];
+		exchangeDeltas = new double[EXCHANGE_BUFFER_SIZE];
 	}
 
 	/* (non-Javadoc)
@@ -69,12 +114,9 @@ public class TS_QBF extends AbstractTS<Integer> {
 	 * @see metaheuristics.tabusearch.AbstractTS#makeTL()
 	 */
 	@Override
-	public ArrayDeque<Integer> makeTL() {
+	public ExpirationTabuList makeTL() {
 
-		ArrayDeque<Integer> _TS = new ArrayDeque<Integer>(2*tenure);
-		for (int i=0; i<2*tenure; i++) {
-			_TS.add(fake);
-		}
+		ExpirationTabuList _TS = new ExpirationTabuList(ObjFunction.getDomainSize(), tenure);
 
 		return _TS;
 	}
@@ -93,15 +135,30 @@ public class TS_QBF extends AbstractTS<Integer> {
 	 * 
 	 * This createEmptySol instantiates an empty solution and it attributes a
 	 * zero cost, since it is known that a QBF solution with all variables set
-	 * to zero has also zero cost.
+	 * to zero has also zero cost. The solution is an {@link IntSolution}, so
+	 * the moves and the copies of the incumbent do not go through a list of
+	 * boxed elements.
 	 */
 	@Override
 	public Solution<Integer> createEmptySol() {
-		Solution<Integer> sol = new Solution<Integer>();
+		Solution<Integer> sol = new IntSolution(ObjFunction.getDomainSize());
 		sol.cost = 0.0;
 		return sol;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The element leaves the solution through
+	 * {@link IntSolution#removeElement(int)}, in O(1) time.
+	 */
+	@Override
+	protected void removeElement(Integer elem) {
+		((IntSolution) currentSol).removeElement(elem);
+		ObjFunction.commitRemoval(elem, currentSol);
+		CL.add(elem);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
@@ -111,66 +168,211 @@ public class TS_QBF extends AbstractTS<Integer> {
 	@Override
 	public Solution<Integer> neighborhoodMove() {
 
-		Double minDeltaCost;
-		Integer bestCandIn = null, bestCandOut = null;
+		updateCL();
+		scanNeighborhood(false);
+		applyBestMove();
+
+		return null;
+	}
+
+	/**
+	 * Scans the Insertion, Removal and 2-Exchange neighborhoods of the current
+	 * solution, saving in {@link #bestCandIn} and {@link #bestCandOut} the
+	 * best non-tabu move (or tabu move satisfying the aspiration criterion).
+	 * The cost variations are obtained from the batch methods of the
+	 * objective function, so each neighborhood is scanned by a primitive loop.
+	 * 
+	 * @param firstImproving
+	 *            if true, each neighborhood is left as soon as a move better
+	 *            than the best one found so far is found.
+	 */
+	protected void scanNeighborhood(boolean firstImproving) {
+
+		double cost = currentSol.cost, incumbentCost = incumbentSol.cost;
+		int clSize = CL.size(), solSize = currentSol.size();
 
 		minDeltaCost = Double.POSITIVE_INFINITY;
-		updateCL();
+		bestCandIn = null;
+		bestCandOut = null;
 		// Evaluate insertions
-		for (Integer candIn : CL) {
-			Double deltaCost = ObjFunction.evaluateInsertionCost(candIn, currentSol);
-			if (!TL.contains(candIn) || currentSol.cost + deltaCost < incumbentSol.cost) {
-				if (deltaCost < minDeltaCost) {
+		ObjFunction.evaluateInsertionCosts(CL, currentSol, insertionDeltas);
+		for (int k = 0; k < clSize; k++) {
+			double deltaCost = insertionDeltas[k];
+			if (deltaCost < minDeltaCost) {
+				Integer candIn = CL.get(k);
+				if (!TL.contains(candIn) || cost + deltaCost < incumbentCost) {
 					minDeltaCost = deltaCost;
 					bestCandIn = candIn;
 					bestCandOut = null;
+					if (firstImproving)
+						break;
 				}
 			}
 		}
 		// Evaluate removals
-		for (Integer candOut : currentSol) {
-			Double deltaCost = ObjFunction.evaluateRemovalCost(candOut, currentSol);
-			if (!TL.contains(candOut) || currentSol.cost + deltaCost < incumbentSol.cost) {
-				if (deltaCost < minDeltaCost) {
+		ObjFunction.evaluateRemovalCosts(currentSol, removalDeltas);
+		for (int j = 0; j < solSize; j++) {
+			double deltaCost = removalDeltas[j];
+			if (deltaCost < minDeltaCost) {
+				Integer candOut = currentSol.get(j);
+				if (!TL.contains(candOut) || cost + deltaCost < incumbentCost) {
 					minDeltaCost = deltaCost;
 					bestCandIn = null;
 					bestCandOut = candOut;
+					if (firstImproving)
+						break;
 				}
 			}
 		}
-		// Evaluate exchanges
-		for (Integer candIn : CL) {
-			for (Integer candOut : currentSol) {
-				Double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
-				if ((!TL.contains(candIn) && !TL.contains(candOut)) || currentSol.cost + deltaCost < incumbentSol.cost) {
-					if (deltaCost < minDeltaCost) {
-						minDeltaCost = deltaCost;
-						bestCandIn = candIn;
-						bestCandOut = candOut;
+		// Evaluate exchanges, a block of candidates at a time
+		if (solSize == 0)
+			return;
+		ExchangeScan scan = new ExchangeScan(0, clSize, minDeltaCost, firstImproving);
+		if (exchangePool != null && (long) clSize * solSize >= PARALLEL_THRESHOLD) {
+			exchangePool.invoke(scan);
+		} else {
+			if (exchangeDeltas.length < solSize)
+				exchangeDeltas = new double[solSize];
+			scan.scanRange(exchangeDeltas);
+		}
+		if (scan.bestK >= 0) {
+			minDeltaCost = scan.bestDelta;
+			bestCandIn = CL.get(scan.bestK);
+			bestCandOut = currentSol.get(scan.bestJ);
+		}
+
+	}
+
+	/**
+	 * Enables the parallel evaluation of the 2-Exchange neighborhood. The
+	 * Candidate List is split across the workers of the pool, each one
+	 * evaluating its share against the current solution, which is not
+	 * modified during the scan. The move chosen is the same one chosen by a
+	 * sequential scan: the best move, ties broken by the lowest position in
+	 * the scan, or the lowest improving move in first-improving mode. The
+	 * objective function must support concurrent calls to
+	 * {@link problems.Evaluator#evaluateExchangeCosts} on the current solution.
+	 * 
+	 * @param pool
+	 *            the pool running the scans, or null for sequential scans.
+	 */
+	public void setExchangePool(ForkJoinPool pool) {
+		this.exchangePool = pool;
+	}
+
+	/**
+	 * A search for the best admissible exchange move among the candidates of
+	 * a range of the Candidate List. Ranges larger than the grain are split in
+	 * halves searched in parallel, and the results are reduced so that the
+	 * lower half wins ties.
+	 */
+	@SuppressWarnings("serial")
+	private class ExchangeScan extends RecursiveAction {
+
+		private final int from, to;
+		private final double threshold;
+		private final boolean firstImproving;
+
+		/**
+		 * The best move found: candidate CL[bestK] replacing solution element
+		 * bestJ, or bestK = -1 if no move beats the threshold.
+		 */
+		double bestDelta;
+		int bestK = -1, bestJ = -1;
+
+		ExchangeScan(int from, int to, double threshold, boolean firstImproving) {
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+			this.firstImproving = firstImproving;
+			this.bestDelta = threshold;
+		}
+
+		@Override
+		protected void compute() {
+
+			int solSize = currentSol.size();
+			int grain = Math.max(1, PARALLEL_GRAIN / solSize);
+			if (to - from <= grain) {
+				double[] buffer = workerDeltas.get();
+				if (buffer.length < solSize) {
+					buffer = new double[solSize];
+					workerDeltas.set(buffer);
+				}
+				scanRange(buffer);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			ExchangeScan lower = new ExchangeScan(from, mid, threshold, firstImproving);
+			ExchangeScan upper = new ExchangeScan(mid, to, threshold, firstImproving);
+			invokeAll(lower, upper);
+			ExchangeScan best = (lower.bestK >= 0 && (upper.bestK < 0 || firstImproving || lower.bestDelta <= upper.bestDelta))
+					? lower : upper;
+			bestDelta = best.bestDelta;
+			bestK = best.bestK;
+			bestJ = best.bestJ;
+
+		}
+
+		/**
+		 * Scans the range sequentially, a block of candidates at a time.
+		 * 
+		 * @param buffer
+		 *            buffer for the cost variations, with room for at least
+		 *            the size of the solution.
+		 */
+		void scanRange(double[] buffer) {
+
+			double cost = currentSol.cost, incumbentCost = incumbentSol.cost;
+			int solSize = currentSol.size();
+			int block = buffer.length / solSize;
+			for (int blockFrom = from; blockFrom < to; blockFrom += block) {
+				int blockTo = Math.min(to, blockFrom + block);
+				ObjFunction.evaluateExchangeCosts(CL, blockFrom, blockTo, currentSol, buffer);
+				for (int k = blockFrom, d = 0; k < blockTo; k++) {
+					Integer candIn = CL.get(k);
+					for (int j = 0; j < solSize; j++, d++) {
+						double deltaCost = buffer[d];
+						if (deltaCost < bestDelta) {
+							Integer candOut = currentSol.get(j);
+							if ((!TL.contains(candIn) && !TL.contains(candOut)) || cost + deltaCost < incumbentCost) {
+								bestDelta = deltaCost;
+								bestK = k;
+								bestJ = j;
+								if (firstImproving)
+									return;
+							}
+						}
 					}
 				}
 			}
+
 		}
-		// Implement the best non-tabu move
-		TL.poll();
+
+	}
+
+	/**
+	 * Implements the move found by {@link #scanNeighborhood(boolean)} on the
+	 * current solution, updating the Candidate List and the Tabu List. Both
+	 * the element leaving and the element entering the solution become tabu.
+	 */
+	protected void applyBestMove() {
+
+		if (bestCandIn != null)
+			lastMove = (bestCandOut != null) ? Move.EXCHANGE : Move.INSERTION;
+		else
+			lastMove = (bestCandOut != null) ? Move.REMOVAL : Move.NONE;
+
 		if (bestCandOut != null) {
-			currentSol.remove(bestCandOut);
-			CL.add(bestCandOut);
+			removeElement(bestCandOut);
 			TL.add(bestCandOut);
-		} else {
-			TL.add(fake);
 		}
-		TL.poll();
 		if (bestCandIn != null) {
-			currentSol.add(bestCandIn);
-			CL.remove(bestCandIn);
+			insertElement(bestCandIn);
 			TL.add(bestCandIn);
-		} else {
-			TL.add(fake);
 		}
-		ObjFunction.evaluate(currentSol);
-		
-		return null;
+		TL.nextIteration();
+
 	}
 
 	/**
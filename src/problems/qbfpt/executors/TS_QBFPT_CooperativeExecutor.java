@@ -0,0 +1,55 @@
+package problems.qbfpt.executors;
+
+import metaheuristics.tabusearch.CooperativeTS;
+import metaheuristics.tabusearch.PortfolioTS;
+import models.Experiment;
+import solutions.Solution;
+
+public class TS_QBFPT_CooperativeExecutor {
+
+    public static void main(String[] args) throws Exception {
+
+        // Params
+        String instance = args.length > 0 ? args[0] : "qbf200";
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long masterSeed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        Double targetCost = args.length > 3 ? Double.parseDouble(args[3]) : Double.NEGATIVE_INFINITY;
+        Integer tenure = 20;
+        Integer iterations = 10000;
+        Experiment experiment = new Experiment("DEFAULT_BEST", "best-improving", "default");
+        PortfolioTS.SolverFactory<Integer> factory = run -> experiment.getModel(tenure, iterations, "instances/" + instance);
+
+        // Isolated runs on the same number of threads, as the baseline
+        PortfolioTS<Integer> portfolio = new PortfolioTS<>(factory, workers, masterSeed);
+        portfolio.setThreads(workers);
+        portfolio.setTargetCost(targetCost);
+
+        long startTime = System.currentTimeMillis();
+        Solution<Integer> bestSol = portfolio.solve();
+        double time = (double) (System.currentTimeMillis() - startTime) / (double) 1000;
+
+        System.out.println("ISOLATED RUNS");
+        for (PortfolioTS.RunStats stats : portfolio.getStats()) {
+            System.out.println(stats);
+        }
+        System.out.println("Best Val = " + bestSol.cost);
+        System.out.println("Time = " + time + " seg");
+
+        // Cooperative workers
+        CooperativeTS<Integer> cooperative = new CooperativeTS<>(factory, workers, masterSeed);
+        cooperative.setTargetCost(targetCost);
+
+        startTime = System.currentTimeMillis();
+        bestSol = cooperative.solve();
+        time = (double) (System.currentTimeMillis() - startTime) / (double) 1000;
+
+        System.out.println("\nCOOPERATIVE WORKERS");
+        for (PortfolioTS.RunStats stats : cooperative.getStats()) {
+            System.out.println(stats);
+        }
+        System.out.println("Restarts = " + cooperative.getRestarts());
+        System.out.println("Time to target = " + cooperative.getTimeToTarget() + " seg");
+        System.out.println("Best Val = " + bestSol);
+        System.out.println("Time = " + time + " seg");
+    }
+}
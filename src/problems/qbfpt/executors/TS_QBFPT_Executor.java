@@ -1,21 +1,52 @@
 package problems.qbfpt.executors;
 
+import metaheuristics.tabusearch.AbstractTS;
+import metaheuristics.tabusearch.ConvergenceTrace;
+import metaheuristics.tabusearch.SolverMetrics;
+import metaheuristics.tabusearch.Termination;
 import models.Experiment;
+import models.ResultsStore;
+import models.RunResult;
+import problems.qbf.matrix.BinaryInstances;
 import problems.qbf.solvers.TS_QBF;
-import problems.qbfpt.solvers.TS_QBFPT_PROB;
 import solutions.Solution;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class TS_QBFPT_Executor {
 
-    public static void main(String[] args) throws IOException {
+    /**
+     * The system property naming a directory that receives the convergence
+     * trace of every run (see {@link ConvergenceTrace}), as
+     * &lt;instance&gt;_&lt;experiment&gt;.csv. Runs are not traced if it is not set.
+     */
+    public static final String TRACE_PROPERTY = "qbf.trace";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
 
         // Params
         String[] instances = {"qbf020", "qbf040", "qbf060", "qbf080", "qbf100", "qbf200", "qbf400"};
         Integer[] tenures = {20, 100};
         Integer iterations = 10000;
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        // Iterations without improvement that end a run early, none by default
+        int stagnation = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        // Runs of each configuration, with seeds 0, 1, ...
+        int seeds = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        // One structured result per run, summarized by models.ResultsSummary
+        String resultsPath = args.length > 3 ? args[3] : "results/runs.csv";
 
         // Experiments
         Experiment[] experiments = {
@@ -33,48 +64,168 @@ public class TS_QBFPT_Executor {
                 new Experiment("DIV_10_BEST", "best-improving", "diversification", 10),
         };
 
+        // Largest instances first, so the longest runs do not end up last
+        String[] schedule = instances.clone();
+        Arrays.sort(schedule, Comparator.comparingInt(TS_QBFPT_Executor::instanceSize).reversed());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ResultsFile[] resultsFiles = new ResultsFile[schedule.length];
+        ResultsStore store = new ResultsStore(resultsPath);
+        List<Future<?>> futures = new ArrayList<>();
+        List<String> runs = new ArrayList<>();
 
-        for (String instance : instances) {
-            FileWriter fileWriter = new FileWriter("results/" + instance + ".txt");
+        for (int k = 0; k < schedule.length; k++) {
+            String instance = schedule[k];
+            ResultsFile resultsFile = new ResultsFile("results/" + instance + ".txt", tenures.length * experiments.length * seeds);
+            resultsFiles[k] = resultsFile;
 
+            int slot = 0;
             for (Integer tenure : tenures) {
                 for (Experiment experiment: experiments) {
-                    try {
-                        String expName = "TENURE=" + tenure + "_" + experiment.getKey();
-                        System.out.println("\n\nINSTANCE:" + instance + "\tRUNNING EXPERIMENT: " + expName + "\n");
+                    for (int run = 0; run < seeds; run++) {
+                        final int entry = slot++;
+                        final long seed = run;
+                        String expName = "TENURE=" + tenure + "_" + experiment.getKey() + (seeds > 1 ? "_SEED=" + seed : "");
+                        runs.add(instance + " " + expName);
+                        futures.add(executor.submit(() -> {
+                            // A failed run leaves an empty slot, so the runs after it are still written
+                            String result = null;
+                            try {
+                                System.out.println("\n\nINSTANCE:" + instance + "\tRUNNING EXPERIMENT: " + expName + "\n");
 
-                        TS_QBF tabuSearch = experiment.getModel(tenure, iterations, "instances/" + instance);
-                        executeInstance(expName, tabuSearch, fileWriter);
+                                TS_QBF tabuSearch = experiment.getModel(tenure, iterations, instancePath(instance));
+                                tabuSearch.setRng(new SplittableRandom(seed));
+                                // Live progress in any JMX console, under metaheuristics.tabusearch:type=Solver
+                                tabuSearch.setMetrics(new SolverMetrics(instance + "_" + expName));
+                                if (stagnation > 0) {
+                                    tabuSearch.setTermination(Termination.anyOf(Termination.iterations(iterations),
+                                            Termination.seconds(AbstractTS.TIME_LIMIT_SECONDS),
+                                            Termination.stagnation(stagnation)));
+                                }
+                                String traceDir = System.getProperty(TRACE_PROPERTY);
+                                if (traceDir == null) {
+                                    result = executeInstance(expName, tabuSearch, store, instance, experiment.getKey(), tenure, seed);
+                                } else {
+                                    try (ConvergenceTrace trace = new ConvergenceTrace(new File(traceDir, instance + "_" + expName + ".csv").getPath())) {
+                                        tabuSearch.setTrace(trace);
+                                        result = executeInstance(expName, tabuSearch, store, instance, experiment.getKey(), tenure, seed);
+                                    }
+                                }
 
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                        System.out.println("Error reading instance or writing in file: "+instance);
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                                System.out.println("Error reading instance or writing in file: "+instance);
+                            } finally {
+                                resultsFile.put(entry, result);
+                            }
+                        }));
                     }
                 }
             }
-            fileWriter.close();
         }
+
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        int failed = 0;
+        for (int k = 0; k < futures.size(); k++) {
+            try {
+                futures.get(k).get();
+            } catch (ExecutionException e) {
+                failed++;
+                System.out.println("Run failed: " + runs.get(k) + ": " + e.getCause());
+                e.getCause().printStackTrace();
+            }
+        }
+        if (failed > 0) {
+            System.out.println(failed + " of " + futures.size() + " runs failed");
+        }
+        for (ResultsFile resultsFile : resultsFiles) {
+            resultsFile.close();
+        }
+        store.close();
     }
 
-    public static void executeInstance(String title, TS_QBF ts, FileWriter fileWriter) {
-        long startTime = System.currentTimeMillis();
+    /**
+     * Runs a solver, adds its structured result to the store, and gives the
+     * entry of the run in the results file of the instance.
+     */
+    public static String executeInstance(String title, TS_QBF ts, ResultsStore store, String instance, String experiment,
+            int tenure, long seed) {
+        ts.verbose = false;
+        long startTime = System.nanoTime();
         Solution<Integer> bestSol = ts.solve();
-        long endTime   = System.currentTimeMillis();
-        long totalTime = endTime - startTime;
-        double time = (double)totalTime/(double)1000;
+        double time = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.println(title + ": Best Val = " + bestSol);
+        System.out.println(title + ": Time = "+ time + " seg");
+        System.out.println(title + ": Stopped by " + ts.getStopReason() + " after " + ts.getExecutedIterations() + " iterations");
 
-        System.out.println("Best Val = " + bestSol);
-        System.out.println("Time = "+ time + " seg");
+        store.add(new RunResult(instance, experiment, tenure, seed, bestSol.cost, ts.getExecutedIterations(), time,
+                ts.getTimeToBest(), ts.getStopReason()));
 
-        if(fileWriter != null) {
+        return title + "\n"
+                + "Best solution: " + bestSol + "\n"
+                + "Time: " + time + "seg \n\n";
+    }
+
+    /**
+     * Gives the file of an instance, preferring its binary version
+     * (instances/&lt;instance&gt;.qbfb, see {@link BinaryInstances}) if there is one.
+     */
+    private static String instancePath(String instance) {
+        String path = "instances/" + instance;
+        return new File(path + ".qbfb").exists() ? path + ".qbfb" : path;
+    }
+
+    private static int instanceSize(String instance) {
+        return Integer.parseInt(instance.replaceAll("\\D", ""));
+    }
+
+    /**
+     * The results file of an instance, written by concurrent experiments. The
+     * entries are appended in the order of their slots, regardless of the
+     * order in which the experiments finish: each entry is kept until all
+     * entries before it have been written.
+     */
+    private static class ResultsFile {
+
+        private final String filename;
+        private final String[] entries;
+        private final boolean[] done;
+        private FileWriter fileWriter;
+        private int written = 0;
+
+        ResultsFile(String filename, int size) throws IOException {
+            this.filename = filename;
+            this.entries = new String[size];
+            this.done = new boolean[size];
+            this.fileWriter = new FileWriter(filename);
+        }
+
+        /**
+         * Stores the entry of a slot, a null entry meaning that the experiment
+         * failed, and writes every entry that is no longer waiting for a
+         * previous one.
+         */
+        synchronized void put(int slot, String entry) {
+            entries[slot] = entry;
+            done[slot] = true;
             try {
-                fileWriter.append(title + "\n");
-                fileWriter.append("Best solution: " + bestSol + "\n");
-                fileWriter.append("Time: " + time + "seg \n\n");
+                while (written < entries.length && done[written]) {
+                    if (entries[written] != null) {
+                        fileWriter.append(entries[written]);
+                    }
+                    entries[written++] = null;
+                }
+                fileWriter.flush();
             } catch (IOException e) {
                 e.printStackTrace();
-                System.out.println("Error writing in file: "+title);
+                System.out.println("Error writing in file: " + filename);
             }
         }
+
+        synchronized void close() throws IOException {
+            fileWriter.close();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package problems.qbfpt.executors;
+
+import metaheuristics.tabusearch.PortfolioTS;
+import models.Experiment;
+import solutions.Solution;
+
+public class TS_QBFPT_PortfolioExecutor {
+
+    public static void main(String[] args) throws Exception {
+
+        // Params
+        String instance = args.length > 0 ? args[0] : "qbf200";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long masterSeed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        Double targetCost = args.length > 3 ? Double.parseDouble(args[3]) : Double.NEGATIVE_INFINITY;
+        Integer tenure = 20;
+        Integer iterations = 10000;
+        Experiment experiment = new Experiment("DEFAULT_BEST", "best-improving", "default");
+
+        PortfolioTS<Integer> portfolio = new PortfolioTS<>(
+                run -> experiment.getModel(tenure, iterations, "instances/" + instance), runs, masterSeed);
+        portfolio.setTargetCost(targetCost);
+
+        long startTime = System.currentTimeMillis();
+        Solution<Integer> bestSol = portfolio.solve();
+        double time = (double) (System.currentTimeMillis() - startTime) / (double) 1000;
+
+        for (PortfolioTS.RunStats stats : portfolio.getStats()) {
+            System.out.println(stats);
+        }
+        System.out.println("Best Val = " + bestSol);
+        System.out.println("Time = " + time + " seg");
+    }
+}
@@ -0,0 +1,137 @@
+package problems.qbfpt.solvers;
+
+import metaheuristics.tabusearch.IntCandidateList;
+import problems.qbf.solvers.IntTS_QBF;
+import problems.qbfpt.triples.ForbiddenTriplesGenerator;
+import problems.qbfpt.triples.TriplesFeasibility;
+import solutions.IntSolution;
+
+import java.io.IOException;
+import java.util.function.IntPredicate;
+
+/**
+ * The port of {@link TS_QBFPT} to the primitive framework, which finds the
+ * same solutions as {@link TS_QBFPT} given the same seed.
+ */
+public class IntTS_QBFPT extends IntTS_QBF {
+
+    private final TriplesFeasibility feasibility;
+    private final int[] changed, released;
+    private final IntPredicate forbidden;
+    private final boolean firstImproving;
+
+    public IntTS_QBFPT(int tenure, int iterations, String filename, String localSearch) throws IOException{
+        super(tenure, iterations, filename);
+        this.feasibility = new TriplesFeasibility(new ForbiddenTriplesGenerator(ObjFunction.domainSize()));
+        this.changed = new int[feasibility.getMaxChanges()];
+        this.released = new int[feasibility.getMaxChanges()];
+        this.forbidden = elem -> !feasibility.isFeasible(elem);
+        this.firstImproving = !localSearch.equals("best-improving");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The Candidate List is created for an empty solution, so the
+     * feasibility counters are reset as well.
+     */
+    @Override
+    public IntCandidateList makeCL(){
+        feasibility.clear();
+        return super.makeCL();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The elements that become forbidden by the new pairs of the solution
+     * leave the Candidate List, all of them in a single pass that keeps the
+     * order of the others, so it holds exactly the feasible insertions.
+     */
+    @Override
+    protected void insertElement(int elem){
+        super.insertElement(elem);
+        if (feasibility.insert(elem, changed) > 0){
+            CL.removeIf(forbidden);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The elements that were forbidden only by pairs containing the removed
+     * element return to the Candidate List.
+     */
+    @Override
+    protected void removeElement(int elem){
+        currentSol.removeElement(elem);
+        currentCost += ObjFunction.commitRemoval(elem, currentSol);
+        int count = feasibility.remove(elem, changed);
+        if (feasibility.isFeasible(elem)){
+            CL.add(elem);
+        }
+        for (int k = 0; k < count; k++){
+            if (changed[k] != elem && !currentSol.contains(changed[k])){
+                CL.add(changed[k]);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The 2-Exchange neighborhood also holds the moves whose entering element
+     * is forbidden only by pairs containing the element leaving, as in
+     * {@link TS_QBFPT#scanNeighborhood(boolean)}, which are skipped in the
+     * same way in first-improving mode.
+     */
+    @Override
+    protected void scanNeighborhood(boolean firstImproving){
+        super.scanNeighborhood(firstImproving);
+        if (firstImproving && bestCandIn >= 0 && bestCandOut >= 0){
+            return;
+        }
+
+        double cost = currentCost;
+        int solSize = currentSol.size();
+        int[] elements = currentSol.elements();
+        for (int j = 0; j < solSize; j++){
+            int candOut = elements[j];
+            int count = feasibility.released(candOut, released);
+            for (int k = 0; k < count; k++){
+                int candIn = released[k];
+                double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
+                if (deltaCost < minDeltaCost){
+                    if ((!TL.contains(candIn) && !TL.contains(candOut)) || cost + deltaCost < incumbentCost){
+                        minDeltaCost = deltaCost;
+                        bestCandIn = candIn;
+                        bestCandOut = candOut;
+                        if (firstImproving){
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void neighborhoodMove(){
+        updateCL();
+        scanNeighborhood(firstImproving);
+
+        applyBestMove();
+    }
+
+    public static void main(String[] args){
+        try {
+            long startTime = System.currentTimeMillis();
+            IntTS_QBFPT tabuSearch = new IntTS_QBFPT(100, 100000, "instances/qbf040", "best-improving");
+            IntSolution bestSol = tabuSearch.solve();
+            System.out.println(bestSol);
+            System.out.println("Time = " + (double)(System.currentTimeMillis() - startTime) / (double) 1000 + " seconds");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
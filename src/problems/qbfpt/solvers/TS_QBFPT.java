@@ -2,111 +2,132 @@ package problems.qbfpt.solvers;
 
 import problems.qbf.solvers.TS_QBF;
 import problems.qbfpt.triples.ForbiddenTriplesGenerator;
+import problems.qbfpt.triples.TriplesFeasibility;
+import solutions.IntSolution;
 import solutions.Solution;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Predicate;
 
 public class TS_QBFPT extends TS_QBF {
 
     private ForbiddenTriplesGenerator forbiddenTriplesGenerator;
+    private final TriplesFeasibility feasibility;
+    private final int[] changed, released;
+    private final Predicate<Integer> forbidden;
     protected String localSearch;
 
     public TS_QBFPT(Integer tenure, Integer iterations, String filename, String localSearch) throws IOException{
         super(tenure, iterations, filename);
         this.forbiddenTriplesGenerator = new ForbiddenTriplesGenerator(ObjFunction.getDomainSize());
+        this.feasibility = new TriplesFeasibility(forbiddenTriplesGenerator);
+        this.changed = new int[feasibility.getMaxChanges()];
+        this.released = new int[feasibility.getMaxChanges()];
+        this.forbidden = elem -> !feasibility.isFeasible(elem);
         this.localSearch = localSearch;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The Candidate List is created for an empty solution, so the
+     * feasibility counters are reset as well.
+     */
     @Override
-    public void updateCL(){
-        if (!this.currentSol.isEmpty()){
-            List<Integer> forbiddenValues = new ArrayList<>();
-            Integer lastElement = this.currentSol.get(this.currentSol.size() - 1);
-            for (int i = 0; i < this.currentSol.size() - 1; i++){
-                forbiddenValues.addAll(forbiddenTriplesGenerator.getForbiddenValues(this.currentSol.get(i) + 1, lastElement + 1));
-            }
-            for (Integer forbiddenValue : forbiddenValues){
-                int index = CL.indexOf(forbiddenValue - 1);
-                if (index >= 0){
-                    CL.remove(index);
-                }
-            }
-        }
+    public ArrayList<Integer> makeCL(){
+        feasibility.clear();
+        return super.makeCL();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The elements that become forbidden by the new pairs of the solution
+     * leave the Candidate List, all of them in a single pass that keeps the
+     * order of the others, so it holds exactly the feasible insertions.
+     */
     @Override
-    public Solution<Integer> neighborhoodMove(){
-        Double minDeltaCost = Double.POSITIVE_INFINITY;
-        Integer bestCandIn = null;
-        Integer bestCandOut = null;
-        updateCL();
+    protected void insertElement(Integer elem){
+        super.insertElement(elem);
+        if (feasibility.insert(elem, changed) > 0){
+            CL.removeIf(forbidden);
+        }
+    }
 
-        for (Integer candIn : CL){
-            Double deltaCost = ObjFunction.evaluateInsertionCost(candIn, currentSol);
-            if (!TL.contains(candIn) || currentSol.cost + deltaCost < incumbentSol.cost) {
-                if (deltaCost < minDeltaCost){
-                    minDeltaCost = deltaCost;
-                    bestCandIn = candIn;
-                    bestCandOut = null;
-                    if (!localSearch.equals("best-improving")){
-                        break;
-                    }
-                }
+    /**
+     * {@inheritDoc}
+     *
+     * The elements that were forbidden only by pairs containing the removed
+     * element return to the Candidate List.
+     */
+    @Override
+    protected void removeElement(Integer elem){
+        ((IntSolution) currentSol).removeElement(elem);
+        ObjFunction.commitRemoval(elem, currentSol);
+        int count = feasibility.remove(elem, changed);
+        if (feasibility.isFeasible(elem)){
+            CL.add(elem);
+        }
+        for (int k = 0; k < count; k++){
+            if (changed[k] != elem && !currentSol.contains(changed[k])){
+                CL.add(changed[k]);
             }
         }
+    }
 
-        for (Integer candOut : currentSol){
-            Double deltaCost = ObjFunction.evaluateRemovalCost(candOut, currentSol);
-            if (!TL.contains(candOut) || currentSol.cost + deltaCost < incumbentSol.cost){
-                if (deltaCost < minDeltaCost){
-                    minDeltaCost = deltaCost;
-                    bestCandIn = null;
-                    bestCandOut = candOut;
-                    if (!localSearch.equals("best-improving")){
-                        break;
-                    }
-                }
-            }
+    /**
+     * Tests whether an element can be inserted into the current solution
+     * without completing a forbidden triple.
+     */
+    protected boolean isFeasible(int elem){
+        return feasibility.isFeasible(elem);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The 2-Exchange neighborhood also holds the moves whose entering element
+     * is not in the Candidate List, being forbidden only by pairs containing
+     * the element leaving. They are scanned after the other moves, element
+     * leaving by element leaving. In first-improving mode they are skipped
+     * once the scan of the other exchanges has stopped on a move, as the
+     * rest of that neighborhood is.
+     */
+    @Override
+    protected void scanNeighborhood(boolean firstImproving){
+        super.scanNeighborhood(firstImproving);
+        if (firstImproving && bestCandIn != null && bestCandOut != null){
+            return;
         }
 
-        EXIT:
-        for (Integer candIn : CL){
-            for (Integer candOut : currentSol){
-                Double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
-                if ((!TL.contains(candIn) && !TL.contains(candOut)) || currentSol.cost + deltaCost < incumbentSol.cost){
-                    if (deltaCost < minDeltaCost){
+        double cost = currentSol.cost, incumbentCost = incumbentSol.cost;
+        for (int j = 0; j < currentSol.size(); j++){
+            Integer candOut = currentSol.get(j);
+            int count = feasibility.released(candOut, released);
+            for (int k = 0; k < count; k++){
+                Integer candIn = released[k];
+                double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
+                if (deltaCost < minDeltaCost){
+                    if ((!TL.contains(candIn) && !TL.contains(candOut)) || cost + deltaCost < incumbentCost){
                         minDeltaCost = deltaCost;
                         bestCandIn = candIn;
                         bestCandOut = candOut;
-                        if (!localSearch.equals("best-improving")){
-                            break EXIT;
+                        if (firstImproving){
+                            return;
                         }
                     }
                 }
             }
         }
+    }
 
-        TL.poll();
-        if (bestCandOut != null){
-            currentSol.remove(bestCandOut);
-            CL.add(bestCandOut);
-            TL.add(bestCandOut);
-        } else{
-            TL.add(fake);
-        }
-
-        TL.poll();
-        if (bestCandIn != null){
-            currentSol.add(bestCandIn);
-            CL.remove(bestCandIn);
-            TL.remove(bestCandIn);
-        } else {
-            TL.add(fake);
-        }
+    @Override
+    public Solution<Integer> neighborhoodMove(){
+        updateCL();
+        scanNeighborhood(!localSearch.equals("best-improving"));
 
-        ObjFunction.evaluate(currentSol);
+        applyBestMove();
 
         return null;
     }
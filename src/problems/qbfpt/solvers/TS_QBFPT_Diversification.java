@@ -14,95 +14,39 @@ public class TS_QBFPT_Diversification extends TS_QBFPT {
         this.diversificationStep = diversificationStep; 
     }
 
-    
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The count of moves is reset as well, so the next diversification
+	 * happens after a full diversification step of moves.
+	 */
 	@Override
-	public Solution<Integer> neighborhoodMove() {
-		Double minDeltaCost;
-		Integer bestCandIn = null, bestCandOut = null;
+	public void reset(Solution<Integer> sol) {
+		super.reset(sol);
+		count = 0;
+	}
 
-		minDeltaCost = Double.POSITIVE_INFINITY;
+	@Override
+	public Solution<Integer> neighborhoodMove() {
 		count += 1;
 		
 		if (!this.currentSol.isEmpty() && count % diversificationStep == 0) {
 			Integer candidate = null;
 			Integer size = this.currentSol.size();
 			Integer numCandidate = rng.nextInt(size);
-			currentSol = createEmptySol();
+			while (!currentSol.isEmpty())
+				removeElement(currentSol.get(currentSol.size() - 1));
 			for (int i = 0; i < numCandidate; i++) {
 				candidate = rng.nextInt(size);
-				if (!TL.contains(candidate))
-					currentSol.add(candidate);
+				if (!TL.contains(candidate) && !currentSol.contains(candidate) && isFeasible(candidate))
+					insertElement(candidate);
 			}
-			ObjFunction.evaluate(currentSol);
 		}
 		
 		updateCL();
-		// Evaluate insertions
-		for (Integer candIn : CL) {
-			Double deltaCost = ObjFunction.evaluateInsertionCost(candIn, currentSol);
-			if (!TL.contains(candIn) || currentSol.cost+deltaCost < incumbentSol.cost) {
-				if (deltaCost < minDeltaCost) {
-					minDeltaCost = deltaCost;
-					bestCandIn = candIn;
-					bestCandOut = null;
-                    if (!localSearch.equals("best-improving")){
-                        break;
-                    }
-				}
-			}
-		}
-		// Evaluate removals
-		for (Integer candOut : currentSol) {
-			Double deltaCost = ObjFunction.evaluateRemovalCost(candOut, currentSol);
-			if (!TL.contains(candOut) || currentSol.cost+deltaCost < incumbentSol.cost) {
-				if (deltaCost < minDeltaCost) {
-					minDeltaCost = deltaCost;
-					bestCandIn = null;
-					bestCandOut = candOut;
-                    if (!localSearch.equals("best-improving")){
-                        break;
-                    }
-				}
-			}
-		}
-		// Evaluate exchanges
-		Boolean stopSearch;
-		for (Integer candIn : CL) {
-			stopSearch = false;
-			for (Integer candOut : currentSol) {
-				Double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
-				if ((!TL.contains(candIn) && !TL.contains(candOut)) || currentSol.cost+deltaCost < incumbentSol.cost) {
-					if (deltaCost < minDeltaCost) {
-						minDeltaCost = deltaCost;
-						bestCandIn = candIn;
-						bestCandOut = candOut;
-                        if (!localSearch.equals("best-improving")){
-                        	stopSearch = true;
-                        	break;
-                        }
-					}
-				}
-			}
-			if (stopSearch) break;
-		}
-		// Implement the best non-tabu move
-		TL.poll();
-		if (bestCandOut != null) {
-			currentSol.remove(bestCandOut);
-			CL.add(bestCandOut);
-			TL.add(bestCandOut);
-		} else {
-			TL.add(fake);
-		}
-		TL.poll();
-		if (bestCandIn != null) {
-			currentSol.add(bestCandIn);
-			CL.remove(bestCandIn);
-			TL.add(bestCandIn);
-		} else {
-			TL.add(fake);
-		}
-		ObjFunction.evaluate(currentSol);
+		scanNeighborhood(!localSearch.equals("best-improving"));
+		applyBestMove();
 		
 		return null;
 	}
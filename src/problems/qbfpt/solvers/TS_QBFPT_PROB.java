@@ -3,37 +3,55 @@ package problems.qbfpt.solvers;
 import solutions.Solution;
 
 import java.io.IOException;
-import java.util.ArrayList;
 
 public class TS_QBFPT_PROB extends TS_QBFPT {
 
     private final Double probability;
 
+    /**
+     * Whether each position of the Candidate List and of the solution was
+     * sampled by the current move, reused across moves.
+     */
+    private final boolean[] sampledIn, sampledOut;
+
     public TS_QBFPT_PROB(Integer tenure, Integer iterations, String filename, String localSearch, Double probability) throws IOException {
         super(tenure, iterations, filename, localSearch);
         this.probability = probability;
+        this.sampledIn = new boolean[ObjFunction.getDomainSize()];
+        this.sampledOut = new boolean[ObjFunction.getDomainSize()];
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Each position of the Candidate List and of the solution is sampled
+     * with the given probability, drawn the first time the position is
+     * reached, and only the moves between sampled positions are considered.
+     * The exchanges of a sampled candidate are evaluated by a single batch
+     * call and filtered by the sampled positions of the solution.
+     */
     @Override
     public Solution<Integer> neighborhoodMove(){
-        Double minCostDelta = Double.POSITIVE_INFINITY;
-        Integer bestCandIn = null;
-        Integer bestCandOut = null;
-        ArrayList<Double> pIn = new ArrayList<>();
-        ArrayList<Double> pOut = new ArrayList<>();
-        double x;
+        double minCostDelta = Double.POSITIVE_INFINITY;
+        bestCandIn = null;
+        bestCandOut = null;
+        int drawnIn = 0, drawnOut = 0;
+        boolean firstImproving = !localSearch.equals("best-improving");
         updateCL();
+        int clSize = CL.size(), solSize = currentSol.size();
+        double cost = currentSol.cost, incumbentCost = incumbentSol.cost;
 
-        for (Integer candIn : CL){
-            x = rng.nextFloat();
-            pIn.add(x);
-            if (x < probability){
-                Double deltaCost = ObjFunction.evaluateInsertionCost(candIn, currentSol);
-                if (!TL.contains(candIn) || currentSol.cost + deltaCost < incumbentSol.cost){
+        ObjFunction.evaluateInsertionCosts(CL, currentSol, insertionDeltas);
+        for (int i = 0; i < clSize; i++){
+            sampledIn[drawnIn++] = rng.nextDouble() < probability;
+            if (sampledIn[i]){
+                Integer candIn = CL.get(i);
+                double deltaCost = insertionDeltas[i];
+                if (!TL.contains(candIn) || cost + deltaCost < incumbentCost){
                     if (deltaCost < minCostDelta){
                         minCostDelta = deltaCost;
                         bestCandIn = candIn;
-                        if (!localSearch.equals("best-improving")){
+                        if (firstImproving){
                             break;
                         }
                     }
@@ -41,44 +59,47 @@ public class TS_QBFPT_PROB extends TS_QBFPT {
             }
         }
 
-        for (Integer candOut : currentSol){
-            x = rng.nextFloat();
-            pOut.add(x);
-            if (x < probability){
-                Double deltaCost = ObjFunction.evaluateRemovalCost(candOut, currentSol);
-                if (!TL.contains(candOut) || currentSol.cost + deltaCost < incumbentSol.cost){
+        ObjFunction.evaluateRemovalCosts(currentSol, removalDeltas);
+        for (int j = 0; j < solSize; j++){
+            sampledOut[drawnOut++] = rng.nextDouble() < probability;
+            if (sampledOut[j]){
+                Integer candOut = currentSol.get(j);
+                double deltaCost = removalDeltas[j];
+                if (!TL.contains(candOut) || cost + deltaCost < incumbentCost){
                     minCostDelta = deltaCost;
                     bestCandIn = null;
                     bestCandOut = candOut;
-                    if (!localSearch.equals("best-improving")){
+                    if (firstImproving){
                         break;
                     }
                 }
             }
         }
 
+        if (exchangeDeltas.length < solSize){
+            exchangeDeltas = new double[solSize];
+        }
         EXIT:
-        for (int i = 0; i < CL.size(); i++){
-            if (i >= pIn.size()){
-                x = rng.nextFloat();
-                pIn.add(x);
+        for (int i = 0; i < clSize; i++){
+            if (i >= drawnIn){
+                sampledIn[drawnIn++] = rng.nextDouble() < probability;
             }
-            if (pIn.get(i) < probability){
+            if (sampledIn[i]){
                 Integer candIn = CL.get(i);
-                for (int j = 0; j < currentSol.size(); j++){
-                    if (j >= pOut.size()){
-                        x = rng.nextFloat();
-                        pOut.add(x);
+                ObjFunction.evaluateExchangeCosts(CL, i, i + 1, currentSol, exchangeDeltas);
+                for (int j = 0; j < solSize; j++){
+                    if (j >= drawnOut){
+                        sampledOut[drawnOut++] = rng.nextDouble() < probability;
                     }
-                    if (pOut.get(j) < probability){
+                    if (sampledOut[j]){
                         Integer candOut = currentSol.get(j);
-                        Double deltaCost = ObjFunction.evaluateExchangeCost(candIn, candOut, currentSol);
-                        if ((!TL.contains(candIn) && !TL.contains(candOut)) || currentSol.cost + deltaCost < incumbentSol.cost){
+                        double deltaCost = exchangeDeltas[j];
+                        if ((!TL.contains(candIn) && !TL.contains(candOut)) || cost + deltaCost < incumbentCost){
                             if (deltaCost < minCostDelta){
                                 minCostDelta = deltaCost;
                                 bestCandIn = candIn;
                                 bestCandOut = candOut;
-                                if (!localSearch.equals("best-improving")){
+                                if (firstImproving){
                                     break EXIT;
                                 }
                             }
@@ -88,25 +109,7 @@ public class TS_QBFPT_PROB extends TS_QBFPT {
             }
         }
 
-        TL.poll();
-        if (bestCandOut != null){
-            currentSol.remove(bestCandOut);
-            CL.add(bestCandOut);
-            TL.add(bestCandOut);
-        } else{
-            TL.add(fake);
-        }
-
-        TL.poll();
-        if (bestCandIn != null){
-            currentSol.add(bestCandIn);
-            CL.remove(bestCandIn);
-            TL.remove(bestCandIn);
-        } else {
-            TL.add(fake);
-        }
-
-        ObjFunction.evaluate(currentSol);
+        applyBestMove();
 
         return null;
     }
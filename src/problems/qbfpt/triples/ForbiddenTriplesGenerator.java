@@ -1,16 +1,48 @@
 package problems.qbfpt.triples;
 
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ForbiddenTriplesGenerator {
 
-    private final int n;
+    final int n;
     private final List<Triple> triples = new ArrayList<>();
 
+    /**
+     * Elements of each triple, in increasing order. Triple t is
+     * (tripleX[t], tripleY[t], tripleZ[t]) and its elements are in [1, n].
+     */
+    final int[] tripleX;
+    final int[] tripleY;
+    final int[] tripleZ;
+
+    /**
+     * Index of the triples incident to each element, in CSR form: the triples
+     * containing element u are incident[offsets[u]] ... incident[offsets[u + 1] - 1],
+     * in increasing order. A triple with a repeated element is listed once.
+     */
+    final int[] offsets;
+    final int[] incident;
+
+    private final int maxDegree;
+
     public ForbiddenTriplesGenerator(int n){
         this.n = n;
-        generator();
+        this.tripleX = new int[n];
+        this.tripleY = new int[n];
+        this.tripleZ = new int[n];
+        this.offsets = new int[n + 2];
+        build();
+        this.incident = new int[offsets[n + 1]];
+        buildIndex();
+        int max = 0;
+        for (int u = 1; u <= n; u++){
+            max = Math.max(max, offsets[u + 1] - offsets[u]);
+        }
+        this.maxDegree = max;
     }
 
     private int mod(int value){
@@ -41,28 +73,156 @@ public class ForbiddenTriplesGenerator {
         return mod(lh + 1);
     }
 
+    /**
+     * Generates the elements of every triple and counts the triples incident
+     * to each element into {@link #offsets}.
+     */
+    private void build(){
+        for (int i = 0; i < n; i++){
+            int x = i + 1, y = g(i), z = h(i, g(i));
+            if (x > y){
+                int u = x;
+                x = y;
+                y = u;
+            }
+            if (x > z){
+                int u = x;
+                x = z;
+                z = u;
+            }
+            if (y > z){
+                int u = y;
+                y = z;
+                z = u;
+            }
+            tripleX[i] = x;
+            tripleY[i] = y;
+            tripleZ[i] = z;
+            offsets[tripleX[i] + 1]++;
+            if (tripleY[i] != tripleX[i]){
+                offsets[tripleY[i] + 1]++;
+            }
+            if (tripleZ[i] != tripleY[i]){
+                offsets[tripleZ[i] + 1]++;
+            }
+        }
+        for (int u = 1; u <= n; u++){
+            offsets[u + 1] += offsets[u];
+        }
+    }
+
+    /**
+     * Fills {@link #incident} with the triples incident to each element.
+     */
+    private void buildIndex(){
+        int[] next = new int[n + 1];
+        System.arraycopy(offsets, 0, next, 0, n + 1);
+        for (int t = 0; t < n; t++){
+            incident[next[tripleX[t]]++] = t;
+            if (tripleY[t] != tripleX[t]){
+                incident[next[tripleY[t]]++] = t;
+            }
+            if (tripleZ[t] != tripleY[t]){
+                incident[next[tripleZ[t]]++] = t;
+            }
+        }
+    }
+
     public List<Triple> generator(){
         if (triples.isEmpty()){
-            for (int i = 0; i < n; i++){
-                triples.add(new Triple(i + 1, g(i), h(i, g(i))));
+            for (int t = 0; t < n; t++){
+                triples.add(new Triple(tripleX[t], tripleY[t], tripleZ[t]));
             }
         }
         return triples;
     }
 
+    /**
+     * Gives the element that completes triple t together with elements u and
+     * v, following the same rules of {@link Triple#complement(int, int)}.
+     *
+     * @return the complement, or 0 if u and v do not fill two positions of the triple.
+     */
+    int complement(int t, int u, int v){
+        int x = tripleX[t], y = tripleY[t], z = tripleZ[t];
+        if (x == u && y == v){
+            return z;
+        }
+        if (x == u && z == v){
+            return y;
+        }
+        if (y == u && z == v){
+            return x;
+        }
+        if (x == v && y == u){
+            return z;
+        }
+        if (x == v && z == u){
+            return y;
+        }
+        if (y == v && z == u){
+            return x;
+        }
+        return 0;
+    }
+
+    /**
+     * Gives the largest number of triples incident to a single element, which
+     * bounds the number of forbidden values of any pair.
+     */
+    public int getMaxDegree(){
+        return maxDegree;
+    }
+
+    /**
+     * Writes into a buffer the values that are forbidden together with x and
+     * y, scanning only the triples incident to x.
+     *
+     * @param values buffer with room for at least {@link #getMaxDegree()} values.
+     * @return the number of values written.
+     */
+    public int getForbiddenValues(int x, int y, int[] values){
+        if (x < 1 || x > n){
+            return 0;
+        }
+        int count = 0;
+        for (int k = offsets[x]; k < offsets[x + 1]; k++){
+            int complement = complement(incident[k], x, y);
+            if (complement != 0){
+                values[count++] = complement;
+            }
+        }
+        return count;
+    }
+
     public List<Integer> getForbiddenValues(Integer x, Integer y){
         List<Integer> values = new ArrayList<>();
-        for (Triple triple : triples){
-            if (triple.contains(x, y)){
-                Integer complement = triple.complement(x, y);
-                if (complement != null){
-                    values.add(complement);
-                }
-            }
+        int[] buffer = new int[maxDegree];
+        int count = getForbiddenValues(x.intValue(), y.intValue(), buffer);
+        for (int k = 0; k < count; k++){
+            values.add(buffer[k]);
         }
         return values;
     }
-    public static void main(String[] args){
+
+    /**
+     * Writes the triples to a file: n in the first line, then a triple per
+     * line, its elements in increasing order and separated by spaces.
+     */
+    public void write(String filename) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))){
+            writer.write(n + "\n");
+            for (int t = 0; t < n; t++){
+                writer.write(tripleX[t] + " " + tripleY[t] + " " + tripleZ[t] + "\n");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1){
+            new ForbiddenTriplesGenerator(Integer.parseInt(args[0])).write(args[1]);
+            return;
+        }
         List<Triple> triples = new ForbiddenTriplesGenerator(20).generator();
         for (Triple triple : triples){
             System.out.println(triple);
@@ -0,0 +1,183 @@
+package problems.qbfpt.triples;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of which elements can enter a solution without completing a
+ * forbidden triple. For each element it counts the pairs of elements of the
+ * solution that form a forbidden triple with it, so an element can be
+ * inserted only while its count is zero. The counts are updated in O(deg)
+ * on each insertion or removal, where deg is the number of triples incident
+ * to the element being moved. An element that cannot be inserted may still
+ * replace an element of the solution in an exchange, if every pair
+ * forbidding it contains the element leaving (see {@link #released}).
+ *
+ * Elements are indexed from 0, as in the solutions, while the triples of the
+ * {@link ForbiddenTriplesGenerator} are indexed from 1.
+ */
+public class TriplesFeasibility {
+
+    private final ForbiddenTriplesGenerator triples;
+
+    /**
+     * Whether each element is in the solution.
+     */
+    private final boolean[] members;
+
+    /**
+     * Number of pairs of the solution forbidding each element.
+     */
+    private final int[] forbidding;
+
+    /**
+     * Number of pairs containing a given element of the solution that forbid
+     * each element, zero outside of {@link #released}.
+     */
+    private final int[] pairsWithOut;
+
+    public TriplesFeasibility(ForbiddenTriplesGenerator triples){
+        this.triples = triples;
+        this.members = new boolean[triples.n];
+        this.forbidding = new int[triples.n];
+        this.pairsWithOut = new int[triples.n];
+    }
+
+    /**
+     * Resets the counts to those of an empty solution.
+     */
+    public void clear(){
+        Arrays.fill(members, false);
+        Arrays.fill(forbidding, 0);
+    }
+
+    /**
+     * Gives the largest number of elements whose feasibility may change with a
+     * single insertion or removal, or be released by an exchange, which
+     * bounds the buffers passed to {@link #insert(int, int[])},
+     * {@link #remove(int, int[])} and {@link #released(int, int[])}.
+     */
+    public int getMaxChanges(){
+        return 2 * triples.getMaxDegree();
+    }
+
+    /**
+     * Tests whether an element can be inserted into the solution.
+     */
+    public boolean isFeasible(int elem){
+        return forbidding[elem] == 0;
+    }
+
+    /**
+     * Gives the elements out of the solution that can replace an element of
+     * the solution in an exchange although they cannot be inserted, i.e.,
+     * whose every forbidding pair contains the element leaving. It takes
+     * O(deg) time, so the exchange feasibility of each pair (in, out) found
+     * by a scan of the solution costs O(1) on average.
+     *
+     * @param changed buffer receiving the elements released by the exchange.
+     * @return the number of elements written into the buffer.
+     */
+    public int released(int out, int[] changed){
+        int u = out + 1;
+        int count = 0;
+        for (int k = triples.offsets[u]; k < triples.offsets[u + 1]; k++){
+            int t = triples.incident[k];
+            int x = triples.tripleX[t], y = triples.tripleY[t], z = triples.tripleZ[t];
+            count = countPair(t, u, x, changed, count);
+            if (y != x){
+                count = countPair(t, u, y, changed, count);
+            }
+            if (z != y){
+                count = countPair(t, u, z, changed, count);
+            }
+        }
+        int released = 0;
+        for (int k = 0; k < count; k++){
+            int c = changed[k];
+            if (pairsWithOut[c] == forbidding[c] && !members[c]){
+                changed[released++] = c;
+            }
+            pairsWithOut[c] = 0;
+        }
+        return released;
+    }
+
+    /**
+     * Registers the insertion of an element into the solution.
+     *
+     * @param changed buffer receiving the elements that became forbidden.
+     * @return the number of elements written into the buffer.
+     */
+    public int insert(int elem, int[] changed){
+        int count = update(elem + 1, 1, changed);
+        members[elem] = true;
+        return count;
+    }
+
+    /**
+     * Registers the removal of an element from the solution.
+     *
+     * @param changed buffer receiving the elements that are no longer forbidden.
+     * @return the number of elements written into the buffer.
+     */
+    public int remove(int elem, int[] changed){
+        members[elem] = false;
+        return update(elem + 1, -1, changed);
+    }
+
+    /**
+     * Adds a step to the count of every element forbidden by a pair formed by
+     * u and another element of the solution.
+     */
+    private int update(int u, int step, int[] changed){
+        int count = 0;
+        for (int k = triples.offsets[u]; k < triples.offsets[u + 1]; k++){
+            int t = triples.incident[k];
+            int x = triples.tripleX[t], y = triples.tripleY[t], z = triples.tripleZ[t];
+            count = update(t, u, x, step, changed, count);
+            if (y != x){
+                count = update(t, u, y, step, changed, count);
+            }
+            if (z != y){
+                count = update(t, u, z, step, changed, count);
+            }
+        }
+        return count;
+    }
+
+    private int update(int t, int u, int v, int step, int[] changed, int count){
+        if (v == u || !members[v - 1]){
+            return count;
+        }
+        int complement = triples.complement(t, u, v);
+        if (complement == 0){
+            return count;
+        }
+        int c = complement - 1;
+        forbidding[c] += step;
+        if ((step > 0 && forbidding[c] == 1) || (step < 0 && forbidding[c] == 0)){
+            changed[count++] = c;
+        }
+        return count;
+    }
+
+    /**
+     * Counts, for {@link #released}, a pair formed by u and another element
+     * of the solution that forbids an element, listing the element the first
+     * time it is counted.
+     */
+    private int countPair(int t, int u, int v, int[] changed, int count){
+        if (v == u || !members[v - 1]){
+            return count;
+        }
+        int complement = triples.complement(t, u, v);
+        if (complement == 0){
+            return count;
+        }
+        int c = complement - 1;
+        if (pairsWithOut[c]++ == 0){
+            changed[count++] = c;
+        }
+        return count;
+    }
+}
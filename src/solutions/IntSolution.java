@@ -0,0 +1,704 @@
+package solutions;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A solution whose elements are the integers of a domain {0, ..., n-1}. The
+ * membership of each element is kept in a bitset and the elements themselves
+ * in a dense int array, so insertions through {@link #addElement(int)},
+ * removals through {@link #removeElement(int)} and membership tests take O(1)
+ * time and copying a solution is a copy of a few primitive arrays.
+ *
+ * The elements are iterated in the order of the dense array.
+ * {@link #removeElement(int)}, meant for the solvers, moves the last element
+ * into the position of the removed one, so the order of the remaining
+ * elements is stable between modifications but is not the order of
+ * insertion. The methods of {@link java.util.List} behave as they do on an
+ * ArrayList: their insertions and removals shift the following elements,
+ * in O(n) time, keeping the order of the others. A solution holds no
+ * duplicated element, so adding or setting an
+ * element that is already in the solution throws an
+ * IllegalArgumentException, except through {@link #addElement(int)}, which
+ * returns false.
+ */
+@SuppressWarnings("serial")
+public class IntSolution extends Solution<Integer> {
+
+	/**
+	 * the membership bitset, one bit per element of the domain.
+	 */
+	private final long[] words;
+
+	/**
+	 * the elements of the solution, stored in positions [0, count).
+	 */
+	private final int[] elements;
+
+	/**
+	 * the position of each element of the solution in {@link #elements}.
+	 */
+	private final int[] positions;
+
+	/**
+	 * the number of elements in the solution.
+	 */
+	private int count;
+
+	/**
+	 * Creates an empty solution over the domain {0, ..., domainSize-1}.
+	 *
+	 * @param domainSize
+	 *            the size of the domain of the elements.
+	 */
+	public IntSolution(int domainSize) {
+		super();
+		words = new long[(domainSize + 63) >>> 6];
+		elements = new int[domainSize];
+		positions = new int[domainSize];
+	}
+
+	/**
+	 * Creates a snapshot of a solution, including its cost.
+	 *
+	 * @param sol
+	 *            the solution being copied.
+	 */
+	public IntSolution(IntSolution sol) {
+		super();
+		words = sol.words.clone();
+		elements = sol.elements.clone();
+		positions = sol.positions.clone();
+		count = sol.count;
+		cost = sol.cost;
+	}
+
+	@Override
+	public IntSolution copy() {
+		return new IntSolution(this);
+	}
+
+	/**
+	 * Makes this solution a copy of another one over the same domain,
+	 * including its cost, without allocating.
+	 *
+	 * @param sol
+	 *            the solution being copied.
+	 */
+	public void copyFrom(IntSolution sol) {
+		if (sol.elements.length != elements.length)
+			throw new IllegalArgumentException("Solutions over domains of sizes " + sol.elements.length + " and "
+					+ elements.length);
+		System.arraycopy(sol.words, 0, words, 0, words.length);
+		System.arraycopy(sol.elements, 0, elements, 0, sol.count);
+		for (int index = 0; index < sol.count; index++) {
+			positions[elements[index]] = index;
+		}
+		count = sol.count;
+		cost = sol.cost;
+		modCount++;
+	}
+
+	/**
+	 * Gives the size of the domain of the elements.
+	 *
+	 * @return the size of the domain.
+	 */
+	public int domainSize() {
+		return elements.length;
+	}
+
+	/**
+	 * Tests whether an element belongs to the solution.
+	 *
+	 * @param elem
+	 *            the element being tested.
+	 * @return true if the element belongs to the solution.
+	 */
+	public boolean contains(int elem) {
+		return elem >= 0 && elem < elements.length && (words[elem >>> 6] & (1L << elem)) != 0;
+	}
+
+	/**
+	 * Gives the element at a position without boxing it.
+	 *
+	 * @param index
+	 *            the position of the element.
+	 * @return the element at the position.
+	 */
+	public int elementAt(int index) {
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/**
+	 * Gives the array holding the elements of the solution in positions
+	 * [0, {@link #size()}), for loops that must not box the elements. The
+	 * array is owned by the solution and must not be modified.
+	 *
+	 * @return the array of elements.
+	 */
+	public int[] elements() {
+		return elements;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return (o instanceof Integer) && contains(((Integer) o).intValue());
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return contains(o) ? positions[(Integer) o] : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public Integer get(int index) {
+		checkIndex(index);
+		return elements[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the element is already in the solution.
+	 */
+	@Override
+	public boolean add(Integer elem) {
+		if (!addElement(elem))
+			throw new IllegalArgumentException("Element " + elem + " already in the solution");
+		return true;
+	}
+
+	/**
+	 * Inserts an element without boxing it.
+	 *
+	 * @param e
+	 *            the element being inserted.
+	 * @return true if the element was not in the solution.
+	 */
+	public boolean addElement(int e) {
+		checkDomain(e);
+		if (contains(e))
+			return false;
+		words[e >>> 6] |= 1L << e;
+		elements[count] = e;
+		positions[e] = count++;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Integer> c) {
+		for (Integer elem : c) {
+			add(elem);
+		}
+		return !c.isEmpty();
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Integer> c) {
+		checkPosition(index);
+		for (Integer elem : c) {
+			add(index++, elem);
+		}
+		return !c.isEmpty();
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0)
+			return false;
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes an element without boxing it, in O(1) time: the last element
+	 * moves into the position of the removed one.
+	 *
+	 * @param e
+	 *            the element being removed.
+	 * @return true if the element was in the solution.
+	 */
+	public boolean removeElement(int e) {
+		if (!contains(e))
+			return false;
+		int index = positions[e];
+		int last = elements[--count];
+		elements[index] = last;
+		positions[last] = index;
+		words[e >>> 6] &= ~(1L << e);
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public Integer remove(int index) {
+		checkIndex(index);
+		int e = elements[index];
+		removeRange(index, index + 1);
+		return e;
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super Integer> filter) {
+		int size = count, kept = 0, index = 0;
+		try {
+			for (; index < size; index++) {
+				int e = elements[index];
+				if (filter.test(e)) {
+					words[e >>> 6] &= ~(1L << e);
+				} else {
+					elements[kept] = e;
+					positions[e] = kept++;
+				}
+			}
+		} finally {
+			/* the elements not tested, if the filter failed, are kept */
+			System.arraycopy(elements, index, elements, kept, size - index);
+			count = kept + size - index;
+			renumber(kept, count);
+			if (count != size)
+				modCount++;
+		}
+		return count != size;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		return removeIf(c::contains);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		return removeIf(elem -> !c.contains(elem));
+	}
+
+	@Override
+	public void clear() {
+		for (int index = 0; index < count; index++) {
+			int e = elements[index];
+			words[e >>> 6] &= ~(1L << e);
+		}
+		count = 0;
+		modCount++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the element is already in another position.
+	 */
+	@Override
+	public Integer set(int index, Integer element) {
+		checkIndex(index);
+		int e = element, old = elements[index];
+		if (e == old)
+			return old;
+		checkNew(e);
+		words[old >>> 6] &= ~(1L << old);
+		words[e >>> 6] |= 1L << e;
+		elements[index] = e;
+		positions[e] = index;
+		modCount++;
+		return old;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the element is already in the solution.
+	 */
+	@Override
+	public void add(int index, Integer element) {
+		checkPosition(index);
+		int e = element;
+		checkNew(e);
+		System.arraycopy(elements, index, elements, index + 1, count - index);
+		elements[index] = e;
+		count++;
+		words[e >>> 6] |= 1L << e;
+		renumber(index, count);
+		modCount++;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > count || fromIndex > toIndex)
+			throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length "
+					+ count);
+		for (int index = fromIndex; index < toIndex; index++) {
+			int e = elements[index];
+			words[e >>> 6] &= ~(1L << e);
+		}
+		System.arraycopy(elements, toIndex, elements, fromIndex, count - toIndex);
+		count -= toIndex - fromIndex;
+		renumber(fromIndex, count);
+		modCount++;
+	}
+
+	@Override
+	public void sort(Comparator<? super Integer> c) {
+		if (c == null) {
+			Arrays.sort(elements, 0, count);
+		} else {
+			Integer[] boxed = toArray(new Integer[count]);
+			Arrays.sort(boxed, c);
+			for (int index = 0; index < count; index++) {
+				elements[index] = boxed[index];
+			}
+		}
+		renumber(0, count);
+		modCount++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the new elements are not distinct, in which case the
+	 *             solution is not modified.
+	 */
+	@Override
+	public void replaceAll(UnaryOperator<Integer> operator) {
+		int[] replaced = new int[count];
+		for (int index = 0; index < count; index++) {
+			replaced[index] = operator.apply(elements[index]);
+			checkDomain(replaced[index]);
+		}
+		long[] members = new long[words.length];
+		for (int e : replaced) {
+			if ((members[e >>> 6] & (1L << e)) != 0)
+				throw new IllegalArgumentException("Element " + e + " repeated by the replacement");
+			members[e >>> 6] |= 1L << e;
+		}
+		System.arraycopy(members, 0, words, 0, words.length);
+		System.arraycopy(replaced, 0, elements, 0, count);
+		renumber(0, count);
+		modCount++;
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator() {
+		return new Itr(0);
+	}
+
+	@Override
+	public ListIterator<Integer> listIterator(int index) {
+		checkPosition(index);
+		return new Itr(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The view is backed by the dense array: its removals shift the
+	 * following elements of the solution, so they keep the order of the
+	 * others.
+	 */
+	@Override
+	public List<Integer> subList(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > count || fromIndex > toIndex)
+			throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length "
+					+ count);
+		return new SubList(fromIndex, toIndex);
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Itr(0);
+	}
+
+	@Override
+	public void forEach(Consumer<? super Integer> action) {
+		for (int index = 0; index < count; index++) {
+			action.accept(elements[index]);
+		}
+	}
+
+	@Override
+	public Spliterator<Integer> spliterator() {
+		return Spliterators.spliterator(iterator(), count, Spliterator.ORDERED | Spliterator.DISTINCT);
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[count];
+		for (int index = 0; index < count; index++) {
+			array[index] = elements[index];
+		}
+		return array;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T[] toArray(T[] a) {
+		T[] array = (a.length >= count) ? a : Arrays.copyOf(a, count);
+		for (int index = 0; index < count; index++) {
+			array[index] = (T) Integer.valueOf(elements[index]);
+		}
+		if (array.length > count)
+			array[count] = null;
+		return array;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof List))
+			return false;
+		List<?> other = (List<?>) o;
+		if (other.size() != count)
+			return false;
+		int index = 0;
+		for (Object elem : other) {
+			if (!(elem instanceof Integer) || (Integer) elem != elements[index++])
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int index = 0; index < count; index++) {
+			hash = 31 * hash + elements[index];
+		}
+		return hash;
+	}
+
+	@Override
+	public Object clone() {
+		return copy();
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+	}
+
+	private void checkPosition(int index) {
+		if (index < 0 || index > count)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+	}
+
+	private void checkDomain(int e) {
+		if (e < 0 || e >= elements.length)
+			throw new IndexOutOfBoundsException("Element " + e + " out of domain of size " + elements.length);
+	}
+
+	/**
+	 * Checks that an element may enter the solution.
+	 */
+	private void checkNew(int e) {
+		checkDomain(e);
+		if (contains(e))
+			throw new IllegalArgumentException("Element " + e + " already in the solution");
+	}
+
+	/**
+	 * Updates the positions of the elements in positions [from, to).
+	 */
+	private void renumber(int from, int to) {
+		for (int index = from; index < to; index++) {
+			positions[elements[index]] = index;
+		}
+	}
+
+	/**
+	 * An iterator over the dense array. A removal through it shifts the
+	 * following elements, as {@link IntSolution#remove(int)} does.
+	 */
+	private class Itr implements ListIterator<Integer> {
+
+		private int cursor;
+		private int lastReturned = -1;
+		private int expectedModCount = modCount;
+
+		Itr(int index) {
+			cursor = index;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return cursor < count;
+		}
+
+		@Override
+		public Integer next() {
+			checkForComodification();
+			if (cursor >= count)
+				throw new NoSuchElementException();
+			lastReturned = cursor;
+			return elements[cursor++];
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		@Override
+		public Integer previous() {
+			checkForComodification();
+			if (cursor <= 0)
+				throw new NoSuchElementException();
+			lastReturned = --cursor;
+			return elements[cursor];
+		}
+
+		@Override
+		public int nextIndex() {
+			return cursor;
+		}
+
+		@Override
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturned < 0)
+				throw new IllegalStateException();
+			checkForComodification();
+			IntSolution.this.remove(lastReturned);
+			cursor = lastReturned;
+			lastReturned = -1;
+			expectedModCount = modCount;
+		}
+
+		@Override
+		public void set(Integer e) {
+			if (lastReturned < 0)
+				throw new IllegalStateException();
+			checkForComodification();
+			IntSolution.this.set(lastReturned, e);
+			expectedModCount = modCount;
+		}
+
+		@Override
+		public void add(Integer e) {
+			checkForComodification();
+			IntSolution.this.add(cursor++, e);
+			lastReturned = -1;
+			expectedModCount = modCount;
+		}
+
+		private void checkForComodification() {
+			if (expectedModCount != modCount)
+				throw new ConcurrentModificationException();
+		}
+
+	}
+
+	/**
+	 * A view of a range of the dense array.
+	 */
+	private class SubList extends AbstractList<Integer> implements RandomAccess {
+
+		private final int offset;
+		private int size;
+		private int expectedModCount = IntSolution.this.modCount;
+
+		SubList(int fromIndex, int toIndex) {
+			offset = fromIndex;
+			size = toIndex - fromIndex;
+		}
+
+		@Override
+		public int size() {
+			checkForComodification();
+			return size;
+		}
+
+		@Override
+		public Integer get(int index) {
+			checkForComodification();
+			Objects.checkIndex(index, size);
+			return elements[offset + index];
+		}
+
+		@Override
+		public Integer set(int index, Integer e) {
+			checkForComodification();
+			Objects.checkIndex(index, size);
+			Integer old = IntSolution.this.set(offset + index, e);
+			expectedModCount = IntSolution.this.modCount;
+			return old;
+		}
+
+		@Override
+		public void add(int index, Integer e) {
+			checkForComodification();
+			Objects.checkIndex(index, size + 1);
+			IntSolution.this.add(offset + index, e);
+			changed(1);
+		}
+
+		@Override
+		public Integer remove(int index) {
+			checkForComodification();
+			Objects.checkIndex(index, size);
+			int e = elements[offset + index];
+			IntSolution.this.remove(offset + index);
+			changed(-1);
+			return e;
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			checkForComodification();
+			IntSolution.this.removeRange(offset + fromIndex, offset + toIndex);
+			changed(fromIndex - toIndex);
+		}
+
+		private void changed(int delta) {
+			size += delta;
+			expectedModCount = IntSolution.this.modCount;
+			modCount++;
+		}
+
+		private void checkForComodification() {
+			if (expectedModCount != IntSolution.this.modCount)
+				throw new ConcurrentModificationException();
+		}
+
+	}
+
+}
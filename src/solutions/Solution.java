@@ -6,6 +6,12 @@ import java.util.ArrayList;
 public class Solution<E> extends ArrayList<E> {
 	
 	public Double cost = Double.POSITIVE_INFINITY;
+
+	/**
+	 * the number of elements replaced by {@link #set}, which the list does
+	 * not count as structural modifications.
+	 */
+	private int replacements;
 	
 	public Solution() {
 		super();
@@ -16,6 +22,40 @@ public class Solution<E> extends ArrayList<E> {
 		cost = sol.cost;
 	}
 
+	/**
+	 * Creates a copy of this solution, including its cost.
+	 * 
+	 * @return a copy of the solution.
+	 */
+	public Solution<E> copy() {
+		return new Solution<E>(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The replacement counts as a modification of the solution (see
+	 * {@link #modifications()}).
+	 */
+	@Override
+	public E set(int index, E element) {
+		replacements++;
+		return super.set(index, element);
+	}
+
+	/**
+	 * Gives a counter of the modifications of the solution: every change of
+	 * its elements through the methods of the list, other than a replacement
+	 * through a view of a range ({@link #subList}), changes it. Together with
+	 * the size it tells whoever keeps some state of the solution, such as an
+	 * evaluator, whether the solution changed behind its back.
+	 * 
+	 * @return the counter, which only changes along with the solution.
+	 */
+	public int modifications() {
+		return modCount + replacements;
+	}
+
 	@Override
 	public String toString() {
 		return "Solution: cost=[" + cost + "], size=[" + this.size() + "], elements=" + super.toString();
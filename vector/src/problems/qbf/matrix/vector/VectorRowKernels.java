@@ -0,0 +1,65 @@
+package problems.qbf.matrix.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import problems.qbf.matrix.RowKernels;
+
+/**
+ * The row loops of {@link RowKernels} on the incubating Vector API, with the
+ * preferred vector size of the platform. A dot product keeps two vectors of
+ * partial sums, to hide the latency of the additions, and adds their lanes
+ * together at the end; the terms that do not fill a vector are added one at
+ * a time. This class is loaded by {@link RowKernels#vector()}, and needs
+ * {@code --add-modules jdk.incubator.vector} both to be compiled and to run.
+ */
+public class VectorRowKernels implements RowKernels {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	private static final int LANES = SPECIES.length();
+
+	@Override
+	public double dot(double[] a, int aFrom, double[] x, int xFrom, int length, double initial) {
+
+		DoubleVector even = DoubleVector.zero(SPECIES), odd = DoubleVector.zero(SPECIES);
+		int k = 0;
+		for (int bound = length - 2 * LANES; k <= bound; k += 2 * LANES) {
+			even = DoubleVector.fromArray(SPECIES, x, xFrom + k)
+					.fma(DoubleVector.fromArray(SPECIES, a, aFrom + k), even);
+			odd = DoubleVector.fromArray(SPECIES, x, xFrom + k + LANES)
+					.fma(DoubleVector.fromArray(SPECIES, a, aFrom + k + LANES), odd);
+		}
+		for (int bound = length - LANES; k <= bound; k += LANES) {
+			even = DoubleVector.fromArray(SPECIES, x, xFrom + k)
+					.fma(DoubleVector.fromArray(SPECIES, a, aFrom + k), even);
+		}
+
+		double sum = initial + even.add(odd).reduceLanes(VectorOperators.ADD);
+		for (; k < length; k++) {
+			sum += x[xFrom + k] * a[aFrom + k];
+		}
+		return sum;
+	}
+
+	@Override
+	public void addScaled(double factor, double[] a, int aFrom, double[] y, int yFrom, int length) {
+
+		DoubleVector scale = DoubleVector.broadcast(SPECIES, factor);
+		int k = 0;
+		for (int bound = length - LANES; k <= bound; k += LANES) {
+			/* a product and a sum, not a fused one, so it rounds as the scalar loop */
+			DoubleVector.fromArray(SPECIES, a, aFrom + k).mul(scale)
+					.add(DoubleVector.fromArray(SPECIES, y, yFrom + k)).intoArray(y, yFrom + k);
+		}
+		for (; k < length; k++) {
+			y[yFrom + k] += factor * a[aFrom + k];
+		}
+	}
+
+	@Override
+	public String name() {
+		return "vector" + SPECIES.vectorBitSize();
+	}
+
+}